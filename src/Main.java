@@ -1,9 +1,19 @@
+import controller.BatchRunner;
 import controller.Command;
+import controller.HttpImageService;
 import controller.ImageController;
 import controller.ImageControllerImplementation;
+import controller.ScriptServer;
 import controller.UIController;
 import controller.commands.RunScript;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
 import javax.swing.UIManager;
 import javax.swing.UnsupportedLookAndFeelException;
 import model.ImageModel;
@@ -51,8 +61,43 @@ public class Main {
       Command executeScript = new RunScript(System.in, System.out, view);
       String command = "run-script " + args[1];
       executeScript.cmdExec(command, model);
+    } else if (args[0].equals("-serve")) {
+      int port = args.length > 1 ? Integer.parseInt(args[1]) : ScriptServer.DEFAULT_PORT;
+      new ScriptServer(model, port).serve();
+    } else if (args[0].equals("-http")) {
+      int port = args.length > 1 ? Integer.parseInt(args[1]) : HttpImageService.DEFAULT_PORT;
+      int limit = args.length > 2
+          ? Integer.parseInt(args[2]) : Runtime.getRuntime().availableProcessors();
+      new HttpImageService(port, limit).start();
+    } else if (args[0].equals("-batch") && args.length > 3) {
+      String template = new String(Files.readAllBytes(Paths.get(args[1])), StandardCharsets.UTF_8);
+      int threads = args.length > 4
+          ? Integer.parseInt(args[4]) : Runtime.getRuntime().availableProcessors();
+      new BatchRunner(template, Paths.get(args[3]), threads).run(BatchRunner.match(args[2]));
+    } else if (args[0].equals("-client") && args.length > 1) {
+      int port = args.length > 2 ? Integer.parseInt(args[2]) : ScriptServer.DEFAULT_PORT;
+      submit(Files.readAllBytes(Paths.get(args[1])), port);
     } else {
       System.out.println("Invalid Command");
     }
   }
+
+  /**
+   * Sends a script to a server started with -serve and prints the results it sends back.
+   *
+   * @param script The lines of the script.
+   * @param port   The loopback port of the server.
+   * @throws IOException If the server cannot be reached.
+   */
+  private static void submit(byte[] script, int port) throws IOException {
+    try (Socket socket = new Socket(InetAddress.getLoopbackAddress(), port)) {
+      OutputStream out = socket.getOutputStream();
+      out.write(script);
+      out.flush();
+      socket.shutdownOutput();
+      InputStream in = socket.getInputStream();
+      in.transferTo(System.out);
+      System.out.flush();
+    }
+  }
 }
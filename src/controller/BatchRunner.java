@@ -0,0 +1,263 @@
+package controller;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.PathMatcher;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Scanner;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReader;
+import javax.imageio.stream.ImageInputStream;
+import model.DecodeCache;
+import model.ImageModel;
+import model.ImageModelImplementation;
+import view.ImageView;
+
+/**
+ * Applies one script template to every file matching a glob, on a pool of worker threads in one
+ * JVM. Each file runs on a model of its own, so files share no image names. In the template,
+ * {input} stands for the path of the file, {name} for its name without the extension, {ext} for
+ * the extension and {output} for the output directory.
+ *
+ * <p>Before a file starts, the memory its images will take is estimated from its dimensions,
+ * which are read from the file header, and reserved from a budget derived from the maximum heap;
+ * a file waits until enough of the budget is free, so large images are not all decoded at once.
+ */
+public class BatchRunner {
+
+  /** The estimated heap size of one decoded pixel: its list and three boxed channel values. */
+  private static final long BYTES_PER_PIXEL = 128;
+
+  /** The number of full-size images a script is assumed to hold at the same time. */
+  private static final int IMAGES_PER_FILE = 4;
+
+  private static final int MEGABYTE = 1024 * 1024;
+
+  private final String template;
+  private final Path outputDirectory;
+  private final int threads;
+  private final Semaphore memory;
+  private final int budgetMegabytes;
+
+  /**
+   * Constructs a batch runner.
+   *
+   * @param template        The script template.
+   * @param outputDirectory The directory {output} stands for; it is created if needed.
+   * @param threads         The number of files processed at once.
+   */
+  public BatchRunner(String template, Path outputDirectory, int threads) {
+    this.template = template;
+    this.outputDirectory = outputDirectory;
+    this.threads = threads;
+    long budget = (Runtime.getRuntime().maxMemory() - DecodeCache.DEFAULT_MAX_BYTES) * 3 / 4;
+    this.budgetMegabytes = (int) Math.max(64, budget / MEGABYTE);
+    this.memory = new Semaphore(budgetMegabytes);
+  }
+
+  /**
+   * Lists the files matching a glob such as photos/*.jpg or photos/**.png, in name order.
+   *
+   * @param glob The glob; the part before the first wildcard is the directory searched.
+   * @return The matching files.
+   * @throws IOException If the directory cannot be read.
+   */
+  public static List<Path> match(String glob) throws IOException {
+    String normalized = glob.replace(File.separatorChar, '/');
+    int wildcard = normalized.length();
+    for (char c : new char[] {'*', '?', '[', '{'}) {
+      int index = normalized.indexOf(c);
+      if (index >= 0) {
+        wildcard = Math.min(wildcard, index);
+      }
+    }
+    int slash = normalized.lastIndexOf('/', wildcard);
+    Path base = Paths.get(slash < 0 ? "." : normalized.substring(0, slash + 1));
+    PathMatcher matcher = FileSystems.getDefault()
+        .getPathMatcher("glob:" + normalized.substring(slash + 1));
+    if (!Files.isDirectory(base)) {
+      return Collections.emptyList();
+    }
+    try (Stream<Path> files = Files.walk(base)) {
+      return files.filter(Files::isRegularFile)
+          .filter(file -> matcher.matches(base.relativize(file)))
+          .sorted()
+          .collect(Collectors.toList());
+    }
+  }
+
+  /**
+   * Runs the template on every file, printing the outcome of each file as it finishes and a
+   * summary at the end.
+   *
+   * @param files The files to process.
+   * @return The number of files whose script did not run successfully.
+   * @throws IOException If the output directory cannot be created.
+   */
+  public int run(List<Path> files) throws IOException {
+    Files.createDirectories(outputDirectory);
+    ExecutorService pool = Executors.newFixedThreadPool(threads);
+    long start = System.nanoTime();
+    List<Future<Outcome>> outcomes = new ArrayList<>();
+    for (Path file : files) {
+      outcomes.add(pool.submit(() -> process(file)));
+    }
+    pool.shutdown();
+
+    long[] latencies = new long[files.size()];
+    long pixels = 0;
+    int failures = 0;
+    Iterator<Future<Outcome>> pending = outcomes.iterator();
+    for (int k = 0; pending.hasNext(); k++) {
+      Outcome outcome;
+      try {
+        outcome = pending.next().get();
+      } catch (ExecutionException e) {
+        outcome = new Outcome(files.get(k), 0, 0, "failed: " + e.getCause());
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        break;
+      }
+      latencies[k] = outcome.nanos;
+      pixels += outcome.pixels;
+      if (outcome.failure != null) {
+        failures++;
+      }
+      System.out.println("[" + (k + 1) + "/" + files.size() + "] " + outcome.file + ": "
+          + (outcome.failure == null ? "done" : outcome.failure) + " in "
+          + outcome.nanos / 1_000_000 + " ms");
+    }
+    System.out.println(summary(files.size(), failures, pixels, System.nanoTime() - start,
+        latencies));
+    return failures;
+  }
+
+  private Outcome process(Path file) throws IOException, InterruptedException {
+    long start = System.nanoTime();
+    long size = pixelCount(file);
+    int megabytes = (int) Math.min(budgetMegabytes,
+        Math.max(1, size * BYTES_PER_PIXEL * IMAGES_PER_FILE / MEGABYTE));
+    memory.acquire(megabytes);
+    try {
+      String fileName = file.getFileName().toString();
+      int dot = fileName.lastIndexOf('.');
+      String script = template
+          .replace("{input}", file.toString())
+          .replace("{name}", dot < 0 ? fileName : fileName.substring(0, dot))
+          .replace("{ext}", dot < 0 ? "" : fileName.substring(dot + 1))
+          .replace("{output}", outputDirectory.toString());
+
+      ImageModel model = new ImageModelImplementation();
+      ByteArrayOutputStream messages = new ByteArrayOutputStream();
+      ImageView collect = (text, out) -> messages.writeBytes(
+          (text + "\n").getBytes(StandardCharsets.UTF_8));
+      ImageControllerImplementation controller = new ImageControllerImplementation(
+          model, new ByteArrayInputStream(new byte[0]), OutputStream.nullOutputStream(), collect);
+      ScriptPlan plan = controller.compile(new Scanner(script), model.getRefNames());
+      if (!plan.getErrors().isEmpty()) {
+        return new Outcome(file, size, System.nanoTime() - start,
+            String.join("; ", plan.getErrors()));
+      }
+      String failure = null;
+      try {
+        plan.run(model, collect, OutputStream.nullOutputStream());
+      } catch (RuntimeException e) {
+        // a command after a failed one may throw; the failed one is reported if there is one
+        failure = "failed: " + e;
+      }
+      for (String result : messages.toString(StandardCharsets.UTF_8).split("\n")) {
+        if (!result.isEmpty() && !result.equals("Command Executed Successfully")) {
+          failure = result;
+          break;
+        }
+      }
+      return new Outcome(file, size, System.nanoTime() - start, failure);
+    } finally {
+      memory.release(megabytes);
+    }
+  }
+
+  /**
+   * Reads the number of pixels of an image from its header without decoding it.
+   *
+   * @param file The image file.
+   * @return The number of pixels, or 0 if the header cannot be read.
+   */
+  private static long pixelCount(Path file) {
+    try (ImageInputStream in = ImageIO.createImageInputStream(file.toFile())) {
+      Iterator<ImageReader> readers = ImageIO.getImageReaders(in);
+      if (readers.hasNext()) {
+        ImageReader reader = readers.next();
+        try {
+          reader.setInput(in);
+          return (long) reader.getWidth(0) * reader.getHeight(0);
+        } finally {
+          reader.dispose();
+        }
+      }
+      if (file.toString().endsWith(".ppm")) {
+        try (Scanner header = new Scanner(file)) {
+          header.next();
+          return header.nextLong() * header.nextLong();
+        }
+      }
+    } catch (IOException | RuntimeException e) {
+      // the file is admitted with the smallest reservation and fails when the script loads it
+    }
+    return 0;
+  }
+
+  private String summary(int files, int failures, long pixels, long nanos, long[] latencies) {
+    double seconds = nanos / 1e9;
+    long[] sorted = latencies.clone();
+    Arrays.sort(sorted);
+    StringBuilder summary = new StringBuilder();
+    summary.append(files).append(" files, ").append(failures).append(" failed, ")
+        .append(threads).append(" threads, ").append(Math.round(seconds * 1000)).append(" ms");
+    if (files > 0) {
+      summary.append("\nthroughput ")
+          .append(Math.round(files / seconds * 100) / 100.0).append(" files/s, ")
+          .append(Math.round(pixels / seconds / 1e4) / 100.0).append(" Mpixels/s")
+          .append("\nlatency(ms) p50 ").append(sorted[(files - 1) / 2] / 1_000_000)
+          .append(" p95 ").append(sorted[(int) Math.ceil(files * 0.95) - 1] / 1_000_000)
+          .append(" max ").append(sorted[files - 1] / 1_000_000);
+    }
+    return summary.toString();
+  }
+
+  /**
+   * The outcome of the script of one file.
+   */
+  private static class Outcome {
+    private final Path file;
+    private final long pixels;
+    private final long nanos;
+    private final String failure;
+
+    private Outcome(Path file, long pixels, long nanos, String failure) {
+      this.file = file;
+      this.pixels = pixels;
+      this.nanos = nanos;
+      this.failure = failure;
+    }
+  }
+}
@@ -2,6 +2,7 @@ package controller;
 
 import java.io.IOException;
 import model.ImageModel;
+import model.ImageNames;
 
 /**
  * The Command interface represents an executable command that operates on an ImageModel. It
@@ -10,14 +11,14 @@ import model.ImageModel;
 public interface Command {
 
   /**
-   * Checks the format and validity of a command given a string representation of the command and an
-   * ImageModel.
+   * Checks the format and validity of a command given a string representation of the command and
+   * the image names it may refer to.
    *
    * @param command The input command string to be checked.
-   * @param model The ImageModel used for image operations.
+   * @param model The names of the images the command will run on.
    * @return A message indicating the status of the command format or validity.
    */
-  String cmdCheck(String command, ImageModel model);
+  String cmdCheck(String command, ImageNames model);
 
   /**
    * Executes a command given a string representation of the command and an ImageModel.
@@ -0,0 +1,252 @@
+package controller;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.TreeMap;
+import javax.management.JMException;
+import javax.management.ObjectName;
+
+/**
+ * Records the wall time, CPU time, allocated bytes and image size of every command executed by
+ * the controllers. One instance is shared by the whole application and registered with the
+ * platform MBean server, so the same numbers are available from the stats command and from any
+ * JMX console.
+ *
+ * <p>Most operations run their passes on the common fork-join pool, so CPU time and allocation
+ * are measured on every live thread, not just the one executing the command: a sample reads the
+ * counters of all threads when it starts and when it stops and adds up the differences. In the
+ * server and batch modes, commands running at the same time are charged for each other's work.
+ * Work done by a thread that ends before the command does is not counted.
+ */
+public class CommandMetrics implements CommandMetricsMBean {
+
+  /** The name under which the metrics are registered with the platform MBean server. */
+  public static final String OBJECT_NAME = "imageprocessing:type=CommandMetrics";
+
+  private static CommandMetrics instance;
+
+  private final ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+  private final Map<String, Entry> entries = new TreeMap<>();
+
+  /**
+   * Accumulated metrics of one command name.
+   */
+  private static class Entry {
+    private long count;
+    private long wallNanos;
+    private long cpuNanos;
+    private long allocatedBytes;
+    private int lastWidth;
+    private int lastHeight;
+  }
+
+  /**
+   * A measurement of one command execution in progress, started by {@link #start()}.
+   */
+  public class Sample {
+    private final long wallStart;
+    private final Map<Long, Long> cpuStart;
+    private final Map<Long, Long> allocatedStart;
+
+    private Sample() {
+      long[] ids = threads.getAllThreadIds();
+      this.cpuStart = counters(ids, cpuTimes(ids));
+      this.allocatedStart = counters(ids, allocatedBytes(ids));
+      this.wallStart = System.nanoTime();
+    }
+
+    /**
+     * Completes the measurement and adds it to the metrics of the command.
+     *
+     * @param commandName The name of the executed command.
+     * @param size        The width and height of the image the command produced, or null.
+     */
+    public void stop(String commandName, int[] size) {
+      long wall = System.nanoTime() - wallStart;
+      long[] ids = threads.getAllThreadIds();
+      long cpu = difference(cpuStart, ids, cpuTimes(ids));
+      long allocated = difference(allocatedStart, ids, allocatedBytes(ids));
+      record(commandName, wall, cpu, allocated, size);
+    }
+  }
+
+  /**
+   * Retrieves the metrics shared by the application, registering them with the platform MBean
+   * server on first use.
+   *
+   * @return The shared command metrics.
+   */
+  public static synchronized CommandMetrics getInstance() {
+    if (instance == null) {
+      instance = new CommandMetrics();
+      try {
+        ManagementFactory.getPlatformMBeanServer()
+            .registerMBean(instance, new ObjectName(OBJECT_NAME));
+      } catch (JMException e) {
+        // the metrics still work through the stats command without JMX
+      }
+    }
+    return instance;
+  }
+
+  /**
+   * Starts measuring a command execution.
+   *
+   * @return The measurement to stop once the command has finished.
+   */
+  public Sample start() {
+    return new Sample();
+  }
+
+  private synchronized void record(
+      String commandName, long wall, long cpu, long allocated, int[] size) {
+    Entry entry = entries.computeIfAbsent(commandName, k -> new Entry());
+    entry.count++;
+    entry.wallNanos += wall;
+    entry.cpuNanos = cpu < 0 || entry.cpuNanos < 0 ? -1 : entry.cpuNanos + cpu;
+    entry.allocatedBytes =
+        allocated < 0 || entry.allocatedBytes < 0 ? -1 : entry.allocatedBytes + allocated;
+    if (size != null) {
+      entry.lastWidth = size[0];
+      entry.lastHeight = size[1];
+    }
+  }
+
+  /**
+   * Reads the CPU time of the given threads.
+   *
+   * @return The CPU time of each thread, -1 for a thread that has ended, or null if CPU time is
+   *     not measured.
+   */
+  private long[] cpuTimes(long[] ids) {
+    if (!threads.isThreadCpuTimeSupported() || !threads.isThreadCpuTimeEnabled()) {
+      return null;
+    }
+    if (threads instanceof com.sun.management.ThreadMXBean) {
+      return ((com.sun.management.ThreadMXBean) threads).getThreadCpuTime(ids);
+    }
+    long[] times = new long[ids.length];
+    for (int k = 0; k < ids.length; k++) {
+      times[k] = threads.getThreadCpuTime(ids[k]);
+    }
+    return times;
+  }
+
+  /**
+   * Reads the bytes allocated by the given threads.
+   *
+   * @return The allocated bytes of each thread, -1 for a thread that has ended, or null if
+   *     allocation is not measured.
+   */
+  private long[] allocatedBytes(long[] ids) {
+    if (threads instanceof com.sun.management.ThreadMXBean) {
+      com.sun.management.ThreadMXBean allocation = (com.sun.management.ThreadMXBean) threads;
+      if (allocation.isThreadAllocatedMemorySupported()
+          && allocation.isThreadAllocatedMemoryEnabled()) {
+        return allocation.getThreadAllocatedBytes(ids);
+      }
+    }
+    return null;
+  }
+
+  private static Map<Long, Long> counters(long[] ids, long[] values) {
+    if (values == null) {
+      return null;
+    }
+    Map<Long, Long> counters = new HashMap<>();
+    for (int k = 0; k < ids.length; k++) {
+      counters.put(ids[k], values[k]);
+    }
+    return counters;
+  }
+
+  /**
+   * Adds up how far the counter of every live thread moved since the start of a sample. A thread
+   * started since then counts in full.
+   *
+   * @return The total difference, or -1 if the counter is not measured.
+   */
+  private static long difference(Map<Long, Long> start, long[] ids, long[] values) {
+    if (start == null || values == null) {
+      return -1;
+    }
+    long total = 0;
+    for (int k = 0; k < ids.length; k++) {
+      if (values[k] >= 0) {
+        total += values[k] - Math.max(0, start.getOrDefault(ids[k], 0L));
+      }
+    }
+    return total;
+  }
+
+  @Override
+  public synchronized long getTotalCommands() {
+    long total = 0;
+    for (Entry entry : entries.values()) {
+      total += entry.count;
+    }
+    return total;
+  }
+
+  @Override
+  public synchronized long getTotalWallTimeMillis() {
+    long total = 0;
+    for (Entry entry : entries.values()) {
+      total += entry.wallNanos;
+    }
+    return total / 1_000_000;
+  }
+
+  @Override
+  public synchronized long getTotalCpuTimeMillis() {
+    long total = 0;
+    for (Entry entry : entries.values()) {
+      if (entry.cpuNanos < 0) {
+        return -1;
+      }
+      total += entry.cpuNanos;
+    }
+    return total / 1_000_000;
+  }
+
+  @Override
+  public synchronized long getTotalAllocatedBytes() {
+    long total = 0;
+    for (Entry entry : entries.values()) {
+      if (entry.allocatedBytes < 0) {
+        return -1;
+      }
+      total += entry.allocatedBytes;
+    }
+    return total;
+  }
+
+  @Override
+  public synchronized String getReport() {
+    if (entries.isEmpty()) {
+      return "No commands executed yet";
+    }
+    StringBuilder report = new StringBuilder(String.format("%-18s %7s %11s %11s %11s %12s %s%n",
+        "command", "count", "wall(ms)", "avg(ms)", "cpu(ms)", "alloc(MB)", "last-size"));
+    for (Map.Entry<String, Entry> row : entries.entrySet()) {
+      Entry entry = row.getValue();
+      report.append(String.format("%-18s %7d %11.1f %11.1f %11s %12s %s%n",
+          row.getKey(),
+          entry.count,
+          entry.wallNanos / 1e6,
+          entry.wallNanos / 1e6 / entry.count,
+          entry.cpuNanos < 0 ? "n/a" : String.format("%.1f", entry.cpuNanos / 1e6),
+          entry.allocatedBytes < 0
+              ? "n/a" : String.format("%.1f", entry.allocatedBytes / (1024.0 * 1024.0)),
+          entry.lastWidth == 0 ? "-" : entry.lastWidth + "x" + entry.lastHeight));
+    }
+    return report.toString().trim();
+  }
+
+  @Override
+  public synchronized void reset() {
+    entries.clear();
+  }
+}
@@ -0,0 +1,49 @@
+package controller;
+
+/**
+ * The management interface through which the command metrics are exposed over JMX.
+ */
+public interface CommandMetricsMBean {
+
+  /**
+   * Retrieves the number of commands executed so far.
+   *
+   * @return The number of executed commands.
+   */
+  long getTotalCommands();
+
+  /**
+   * Retrieves the wall time spent executing commands.
+   *
+   * @return The total wall time in milliseconds.
+   */
+  long getTotalWallTimeMillis();
+
+  /**
+   * Retrieves the CPU time all threads spent while commands ran, including the pool threads that
+   * parallel operations fork their work into.
+   *
+   * @return The total CPU time in milliseconds, or -1 if CPU time is not measured.
+   */
+  long getTotalCpuTimeMillis();
+
+  /**
+   * Retrieves the number of bytes all threads allocated while commands ran, including the pool
+   * threads that parallel operations fork their work into.
+   *
+   * @return The total allocated bytes, or -1 if allocation is not measured.
+   */
+  long getTotalAllocatedBytes();
+
+  /**
+   * Retrieves a table of the metrics of every command name.
+   *
+   * @return The formatted metrics report.
+   */
+  String getReport();
+
+  /**
+   * Clears all recorded metrics.
+   */
+  void reset();
+}
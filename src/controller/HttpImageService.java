@@ -0,0 +1,379 @@
+package controller;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Scanner;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReader;
+import javax.imageio.stream.ImageInputStream;
+import model.ImageModel;
+import model.ImageModelImplementation;
+import model.Resampler;
+import view.ImageView;
+
+/**
+ * Exposes the image commands over HTTP with the server built into the JDK. A client POSTs an
+ * image to /process together with a pipeline, and receives the processed image in the response.
+ * GET /metrics reports the request latencies and the command metrics.
+ *
+ * <p>The pipeline is a list of operations separated by ';', given in the pipeline query
+ * parameter or the X-Pipeline header. Each operation is a command of the script language without
+ * its image names, such as "blur", "brighten 40" or "compress -psnr 35"; the service threads the
+ * image through the operations in order. Commands that touch files or other images are refused.
+ * Request bodies and decoded images beyond a fixed size are refused with 413 before they are
+ * read or decoded.
+ *
+ * <p>Every request runs on its own model, so requests share nothing. At most a configured number
+ * of requests are processed at once; a request arriving while all of them are busy is answered
+ * with 429 at once instead of queueing. Requests are handled on a pool of twice that many
+ * threads, so requests uploading their image or waiting for a cached result cannot hold up the
+ * processing ones; connections beyond the pool wait for a thread before their request is read.
+ *
+ * <p>Results are cached by the SHA-256 of the posted image, the output format and the normalized
+ * pipeline. A request whose result is cached, or is being computed for an identical request,
+ * takes no processing slot and waits for that result instead.
+ */
+public class HttpImageService {
+
+  /** The port the service listens on unless another one is given. */
+  public static final int DEFAULT_PORT = 8080;
+
+  private static final List<String> REFUSED = Arrays.asList(
+      "load", "save", "run-script", "quit", "stats", "rgb-split", "rgb-combine", "stream",
+      "histogram");
+  private static final int MAX_BODY_BYTES = 32 * 1024 * 1024;
+  private static final long MAX_PIXELS = 4096L * 4096;
+  private static final int LATENCY_WINDOW = 1024;
+  private static final long CACHE_BYTES = 64L * 1024 * 1024;
+
+  private final int port;
+  private final int limit;
+  private final Semaphore permits;
+  private final ResultCache results = new ResultCache(CACHE_BYTES);
+  private final AtomicLong served = new AtomicLong();
+  private final AtomicLong rejected = new AtomicLong();
+  private final AtomicLong failed = new AtomicLong();
+  private final long[] latencies = new long[LATENCY_WINDOW];
+  private long latencyCount;
+  private HttpServer server;
+  private ExecutorService executor;
+
+  /**
+   * Constructs a service.
+   *
+   * @param port  The port to listen on.
+   * @param limit The largest number of requests processed at once.
+   */
+  public HttpImageService(int port, int limit) {
+    this.port = port;
+    this.limit = limit;
+    this.permits = new Semaphore(limit);
+  }
+
+  /**
+   * Starts the service in the background.
+   *
+   * @throws IOException If the port cannot be opened.
+   */
+  public void start() throws IOException {
+    server = HttpServer.create(new InetSocketAddress(port), 0);
+    server.createContext("/process", this::process);
+    server.createContext("/metrics", this::metrics);
+    ThreadPoolExecutor pool = new ThreadPoolExecutor(
+        2 * limit, 2 * limit, 60, TimeUnit.SECONDS, new LinkedBlockingQueue<>());
+    pool.allowCoreThreadTimeOut(true);
+    executor = pool;
+    server.setExecutor(executor);
+    server.start();
+    System.out.println("Serving on " + server.getAddress() + " with at most " + limit
+        + " requests at once");
+  }
+
+  /**
+   * Stops the service, letting requests in progress finish within the given delay.
+   *
+   * @param seconds The longest time to wait for requests in progress.
+   */
+  public void stop(int seconds) {
+    server.stop(seconds);
+    executor.shutdown();
+  }
+
+  private void process(HttpExchange exchange) throws IOException {
+    try (exchange) {
+      if (!exchange.getRequestMethod().equals("POST")) {
+        reply(exchange, 405, "Use POST with the image as the request body");
+        return;
+      }
+      long start = System.nanoTime();
+      try {
+        handle(exchange, start);
+      } catch (TooLargeException e) {
+        reply(exchange, 413, e.getMessage());
+      } catch (RejectedExecutionException e) {
+        rejected.incrementAndGet();
+        exchange.getResponseHeaders().set("Retry-After", "1");
+        reply(exchange, 429, "Too many requests in progress");
+      } catch (IllegalArgumentException e) {
+        reply(exchange, 400, e.getMessage());
+      } catch (Exception e) {
+        failed.incrementAndGet();
+        reply(exchange, 500, "Processing failed: " + e.getMessage());
+      }
+    }
+  }
+
+  private void handle(HttpExchange exchange, long start) throws Exception {
+    String query = exchange.getRequestURI().getRawQuery();
+    String pipeline = parameter(query, "pipeline");
+    if (pipeline == null) {
+      pipeline = exchange.getRequestHeaders().getFirst("X-Pipeline");
+    }
+    String format = parameter(query, "format");
+    if (format == null) {
+      format = "png";
+    }
+    if (!Arrays.asList("png", "jpg", "jpeg", "bmp").contains(format)) {
+      throw new IllegalArgumentException("Unsupported format " + format);
+    }
+    List<String> operations = new ArrayList<>();
+    if (pipeline != null) {
+      for (String operation : pipeline.split(";")) {
+        String normalized = operation.trim().replaceAll(" +", " ");
+        if (normalized.isEmpty()) {
+          continue;
+        }
+        String name = normalized.split(" ")[0];
+        if (REFUSED.contains(name)) {
+          throw new IllegalArgumentException("Operation " + name + " is not available over HTTP");
+        }
+        operations.add(normalized);
+      }
+    }
+    String length = exchange.getRequestHeaders().getFirst("Content-Length");
+    if (length != null && Long.parseLong(length.trim()) > MAX_BODY_BYTES) {
+      throw new TooLargeException("The request body is larger than " + MAX_BODY_BYTES + " bytes");
+    }
+    byte[] source = exchange.getRequestBody().readNBytes(MAX_BODY_BYTES + 1);
+    if (source.length > MAX_BODY_BYTES) {
+      throw new TooLargeException("The request body is larger than " + MAX_BODY_BYTES + " bytes");
+    }
+    String outputFormat = format;
+    String key = digest(source) + " " + format + " " + String.join(";", operations);
+    byte[] result = results.get(key, () -> {
+      if (!permits.tryAcquire()) {
+        throw new RejectedExecutionException();
+      }
+      try {
+        return render(source, operations, outputFormat);
+      } finally {
+        permits.release();
+      }
+    });
+
+    long millis = (System.nanoTime() - start) / 1_000_000;
+    exchange.getResponseHeaders().set("Content-Type", "image/" + format);
+    exchange.getResponseHeaders().set("X-Processing-Millis", Long.toString(millis));
+    exchange.sendResponseHeaders(200, result.length);
+    exchange.getResponseBody().write(result);
+    record(System.nanoTime() - start);
+    served.incrementAndGet();
+  }
+
+  /**
+   * Runs a pipeline on an image on a model of its own.
+   *
+   * @param source     The encoded image.
+   * @param operations The operations of the pipeline, without image names.
+   * @param format     The format to encode the result in.
+   * @return The encoded result.
+   * @throws IOException If the result cannot be encoded.
+   */
+  private byte[] render(byte[] source, List<String> operations, String format)
+      throws IOException {
+    checkSizes(checkDimensions(source), operations);
+    BufferedImage input = ImageIO.read(new ByteArrayInputStream(source));
+    if (input == null) {
+      throw new IllegalArgumentException("The request body is not a readable image");
+    }
+    ImageModel model = new ImageModelImplementation();
+    model.loadImage(input, "img0");
+    StringBuilder script = new StringBuilder();
+    for (int k = 0; k < operations.size(); k++) {
+      script.append(operations.get(k)).append(" img").append(k)
+          .append(" img").append(k + 1).append('\n');
+    }
+    ImageView discard = (text, out) -> { };
+    ImageControllerImplementation controller = new ImageControllerImplementation(
+        model, new ByteArrayInputStream(new byte[0]), OutputStream.nullOutputStream(), discard);
+    ScriptPlan plan = controller.compile(
+        new Scanner(script.toString()), Collections.singletonList("img0"));
+    if (!plan.getErrors().isEmpty()) {
+      throw new IllegalArgumentException(String.join("\n", plan.getErrors()));
+    }
+    plan.run(model, discard, OutputStream.nullOutputStream());
+    BufferedImage result = model.saveImage1("result." + format, "img" + operations.size());
+    ByteArrayOutputStream encoded = new ByteArrayOutputStream();
+    ImageIO.write(result, format, encoded);
+    return encoded.toByteArray();
+  }
+
+  /**
+   * Reads the dimensions of an encoded image from its header and refuses it if it would decode
+   * to more than the largest number of pixels.
+   *
+   * @return The width and height of the image.
+   */
+  private static int[] checkDimensions(byte[] source) throws IOException {
+    try (ImageInputStream in = ImageIO.createImageInputStream(new ByteArrayInputStream(source))) {
+      Iterator<ImageReader> readers = ImageIO.getImageReaders(in);
+      if (!readers.hasNext()) {
+        throw new IllegalArgumentException("The request body is not a readable image");
+      }
+      ImageReader reader = readers.next();
+      try {
+        reader.setInput(in);
+        int[] size = {reader.getWidth(0), reader.getHeight(0)};
+        if ((long) size[0] * size[1] > MAX_PIXELS) {
+          throw new TooLargeException("The image has more than " + MAX_PIXELS + " pixels");
+        }
+        return size;
+      } finally {
+        reader.dispose();
+      }
+    }
+  }
+
+  /**
+   * Follows the size of the image through a pipeline and refuses it if a resize would produce
+   * more than the largest number of pixels of an uploaded image. Malformed operations are left
+   * for the script compiler to report.
+   */
+  private static void checkSizes(int[] size, List<String> operations) {
+    int width = size[0];
+    int height = size[1];
+    for (String operation : operations) {
+      String[] tokens = operation.split(" ");
+      if (tokens[0].equals("resize")) {
+        int first = tokens.length > 1 && tokens[1].startsWith("-") ? 2 : 1;
+        try {
+          int[] resized = Resampler.targetSize(width, height,
+              Integer.parseInt(tokens[first]), Integer.parseInt(tokens[first + 1]));
+          width = resized[0];
+          height = resized[1];
+        } catch (NumberFormatException | ArrayIndexOutOfBoundsException e) {
+          return;
+        }
+        if ((long) width * height > MAX_PIXELS) {
+          throw new TooLargeException("The resized image would have more than " + MAX_PIXELS
+              + " pixels");
+        }
+      } else if (Arrays.asList("rotate-90", "rotate-270", "transpose").contains(tokens[0])) {
+        int swap = width;
+        width = height;
+        height = swap;
+      }
+    }
+  }
+
+  /**
+   * Signals a request body or image too large to process.
+   */
+  private static class TooLargeException extends IllegalArgumentException {
+    private static final long serialVersionUID = 1L;
+
+    TooLargeException(String message) {
+      super(message);
+    }
+  }
+
+  private static String digest(byte[] bytes) {
+    try {
+      StringBuilder hex = new StringBuilder();
+      for (byte b : MessageDigest.getInstance("SHA-256").digest(bytes)) {
+        hex.append(Character.forDigit((b >> 4) & 0xf, 16)).append(Character.forDigit(b & 0xf, 16));
+      }
+      return hex.toString();
+    } catch (NoSuchAlgorithmException e) {
+      throw new IllegalStateException(e);
+    }
+  }
+
+  private void metrics(HttpExchange exchange) throws IOException {
+    try (exchange) {
+      reply(exchange, 200, report() + "\n" + results.report() + "\n\n"
+          + CommandMetrics.getInstance().getReport());
+    }
+  }
+
+  private synchronized void record(long nanos) {
+    latencies[(int) (latencyCount % LATENCY_WINDOW)] = nanos;
+    latencyCount++;
+  }
+
+  /**
+   * Summarizes the requests served so far.
+   *
+   * @return The request counts and the latency percentiles of the most recent requests.
+   */
+  public synchronized String report() {
+    StringBuilder report = new StringBuilder();
+    report.append("served ").append(served.get())
+        .append("\nrejected ").append(rejected.get())
+        .append("\nfailed ").append(failed.get())
+        .append("\nin progress ").append(limit - permits.availablePermits());
+    int count = (int) Math.min(latencyCount, LATENCY_WINDOW);
+    if (count > 0) {
+      long[] sorted = Arrays.copyOf(latencies, count);
+      Arrays.sort(sorted);
+      report.append("\nlatency(ms) over the last ").append(count).append(" requests:")
+          .append(" p50 ").append(sorted[(count - 1) / 2] / 1_000_000)
+          .append(" p95 ").append(sorted[(int) ((count - 1) * 0.95)] / 1_000_000)
+          .append(" p99 ").append(sorted[(int) ((count - 1) * 0.99)] / 1_000_000)
+          .append(" max ").append(sorted[count - 1] / 1_000_000);
+    }
+    return report.toString();
+  }
+
+  private static void reply(HttpExchange exchange, int status, String text) throws IOException {
+    byte[] body = (text + "\n").getBytes(StandardCharsets.UTF_8);
+    exchange.getResponseHeaders().set("Content-Type", "text/plain; charset=utf-8");
+    exchange.sendResponseHeaders(status, body.length);
+    exchange.getResponseBody().write(body);
+  }
+
+  private static String parameter(String query, String name) {
+    if (query == null) {
+      return null;
+    }
+    for (String pair : query.split("&")) {
+      int equals = pair.indexOf('=');
+      if (equals > 0 && pair.substring(0, equals).equals(name)) {
+        return URLDecoder.decode(pair.substring(equals + 1), StandardCharsets.UTF_8);
+      }
+    }
+    return null;
+  }
+}
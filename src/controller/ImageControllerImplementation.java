@@ -5,6 +5,7 @@ import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Scanner;
 import java.util.function.Function;
@@ -16,6 +17,8 @@ import controller.commands.ColorCorrection;
 import controller.commands.Compress;
 import controller.commands.Histogram;
 import controller.commands.RedComp;
+import controller.commands.Resize;
+import controller.commands.Rotate;
 import controller.commands.Sepia;
 import controller.commands.Sharpen;
 import controller.commands.Brighten;
@@ -26,6 +29,8 @@ import controller.commands.RGBCombine;
 import controller.commands.RGBSplit;
 import controller.commands.RunScript;
 import controller.commands.Save;
+import controller.commands.Stats;
+import controller.commands.Stream;
 import controller.commands.VerticalFlip;
 import model.ImageModel;
 import view.ImageView;
@@ -41,6 +46,7 @@ public class ImageControllerImplementation implements ImageController {
   private final ImageView view;
 
   private Map<String, Function<String, Command>> commands;
+  private final Map<String, Command> instances = new HashMap<>();
 
 
   /**
@@ -70,6 +76,10 @@ public class ImageControllerImplementation implements ImageController {
     commands.put("save", s -> new Save());
     commands.put("vertical-flip", s -> new VerticalFlip());
     commands.put("horizontal-flip", s -> new HorizontalFlip());
+    commands.put("rotate-90", s -> new Rotate());
+    commands.put("rotate-180", s -> new Rotate());
+    commands.put("rotate-270", s -> new Rotate());
+    commands.put("transpose", s -> new Rotate());
     commands.put("red-component", s -> new RedComp());
     commands.put("greyscale", s -> new Greyscale());
     commands.put("rgb-split", s -> new RGBSplit());
@@ -83,6 +93,9 @@ public class ImageControllerImplementation implements ImageController {
     commands.put("levels-adjust", s -> new LevelsAdjustment());
     commands.put("color-correction", s -> new ColorCorrection());
     commands.put("compress", s -> new Compress());
+    commands.put("stats", s -> new Stats());
+    commands.put("stream", s -> new Stream());
+    commands.put("resize", s -> new Resize());
     commands.put("quit", s -> {
       System.exit(0);
       return null;
@@ -90,6 +103,33 @@ public class ImageControllerImplementation implements ImageController {
   }
 
 
+  /**
+   * Retrieves the command of the given name, creating it on first use. Commands keep no state
+   * between executions, so one instance serves every line that uses the command.
+   *
+   * @param name The name of the command.
+   * @return The command, or null if no command has that name.
+   */
+  private Command command(String name) {
+    Command command = instances.get(name);
+    if (command == null && commands.containsKey(name)) {
+      command = commands.get(name).apply(name);
+      instances.put(name, command);
+    }
+    return command;
+  }
+
+  /**
+   * Compiles a script with the commands of this controller.
+   *
+   * @param scanner The scanner reading the lines of the script.
+   * @param names   The names of the images that exist before the script runs.
+   * @return The compiled script.
+   */
+  public ScriptPlan compile(Scanner scanner, List<String> names) {
+    return ScriptPlan.compile(scanner, names, this::command);
+  }
+
   /**
    * Executes the given command on the provided ImageModel.
    *
@@ -104,20 +144,27 @@ public class ImageControllerImplementation implements ImageController {
       return "";
     }
     String[] commandParts = command.split(" ");
-    Function<String, Command> getCommand = this.commands.getOrDefault(commandParts[0],
-            null);
-    if (getCommand != null) {
-      Command commandVal = getCommand.apply(command);
-      if (!commandVal.cmdCheck(command, model).equals("Valid Command Format")) {
-        return commandVal.cmdCheck(command, model);
+    Command commandVal = command(commandParts[0]);
+    if (commandVal != null) {
+      String check = commandVal.cmdCheck(command, model);
+      if (!check.equals("Valid Command Format")) {
+        return check;
+      }
+      if (commandParts[0].equals("run-script")) {
+        // every step of the script records its own sample
+        return ResultStore.getInstance().execute(commandVal, command, commandParts, model);
       }
-      return commandVal.cmdExec(command, model);
+      CommandMetrics.Sample sample = CommandMetrics.getInstance().start();
+      String result = ResultStore.getInstance().execute(commandVal, command, commandParts, model);
+      sample.stop(commandParts[0], model.getImageSize(commandParts[commandParts.length - 1]));
+      return result;
 
     } else {
       return "Invalid Command \nAvailable commands:\nload\n"
               + "save\nvertical-flip\nhorizontal-flip\ngreyscale\nrgb-split\nbrighten\n"
               + "rgb-combine\nrun-script\nblur\nsharpen"
-              + "\nsepia\nhistogram\ncolor-correction\ncompress\nlevels-adjust";
+              + "\nsepia\nhistogram\ncolor-correction\ncompress\nlevels-adjust\nstats\nstream"
+              + "\nresize\nrotate-90\nrotate-180\nrotate-270\ntranspose";
     }
   }
 
@@ -131,7 +178,8 @@ public class ImageControllerImplementation implements ImageController {
   public void proceed() throws IOException {
     view.viewOutput("Available Operations:\n"
             + "1. Load Image ("
-            + "Format: load image-path image-name" + ") \n"
+            + "Format: load image-path image-name [-region x y width height] [-subsample n] "
+            + "[-scale factor]" + ") \n"
             + "2. Save Image (" + "Format: load image-path image-name"
             + ") \n"
             + "3. Flip Image Vertically ("
@@ -167,12 +215,29 @@ public class ImageControllerImplementation implements ImageController {
             + "dest-image-name"
             + ") \n"
             + "15. Compress image ("
-            + "Format: compress threshold-value image-name "
+            + "Format: compress threshold-value|-psnr decibels|-size bytes|-tiled percent|"
+            + "-dct percent|-lossless "
+            + "image-name "
             + "dest-image-name"
             + ") \n"
             + "16. levels-adjust image ("
             + "Format: levels-adjust b m w image-name "
             + "dest-image-name \n"
+            + "17. Command statistics ("
+            + "Format: stats [reset]"
+            + ") \n"
+            + "18. Stream a file through one operation in strips ("
+            + "Format: stream brighten increment|greyscale [component-name]|sepia|"
+            + "levels-adjust b m w|blur|sharpen image-path dest-ppm-path"
+            + ") \n"
+            + "19. Resize Image ("
+            + "Format: resize [-box|-bilinear|-lanczos3] width height image-name "
+            + "dest-image-name, 0 for width or height keeps the aspect ratio"
+            + ") \n"
+            + "20. Rotate or Transpose Image ("
+            + "Format: rotate-90|rotate-180|rotate-270|transpose image-name "
+            + "dest-image-name, rotate-90 turns clockwise"
+            + ") \n"
             + "To Quit the application (Format: quit) \n" + "Enter a command: \n"
             + " \n", output);
 
@@ -192,4 +257,4 @@ public class ImageControllerImplementation implements ImageController {
       System.out.println();
     }
   }
-}
\ No newline at end of file
+}
\ No newline at end of file
@@ -0,0 +1,107 @@
+package controller;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Caches encoded results by key and merges concurrent requests for the same key. The first
+ * request for a key computes the result while later requests for that key wait for it instead of
+ * computing it again; finished results are kept in least-recently-used order until their total
+ * size would exceed a byte budget.
+ */
+public class ResultCache {
+
+  private final long maxBytes;
+  private final Map<String, byte[]> results = new LinkedHashMap<>(16, 0.75f, true);
+  private final Map<String, CompletableFuture<byte[]>> inFlight = new ConcurrentHashMap<>();
+  private final AtomicLong hits = new AtomicLong();
+  private final AtomicLong misses = new AtomicLong();
+  private final AtomicLong coalesced = new AtomicLong();
+  private long bytes;
+
+  /**
+   * Constructs an empty cache.
+   *
+   * @param maxBytes The largest total size of the cached results in bytes.
+   */
+  public ResultCache(long maxBytes) {
+    this.maxBytes = maxBytes;
+  }
+
+  /**
+   * Retrieves the result for a key, computing it if it is neither cached nor being computed.
+   *
+   * @param key     The key of the result.
+   * @param compute Computes the result; it runs at most once at a time for a key.
+   * @return The result.
+   * @throws Exception Whatever the computation threw, also rethrown to the requests that waited.
+   */
+  public byte[] get(String key, Callable<byte[]> compute) throws Exception {
+    byte[] cached = lookup(key);
+    if (cached != null) {
+      hits.incrementAndGet();
+      return cached;
+    }
+    CompletableFuture<byte[]> mine = new CompletableFuture<>();
+    CompletableFuture<byte[]> running = inFlight.putIfAbsent(key, mine);
+    if (running != null) {
+      coalesced.incrementAndGet();
+      try {
+        return running.join();
+      } catch (CompletionException e) {
+        throw e.getCause() instanceof Exception ? (Exception) e.getCause() : e;
+      }
+    }
+    try {
+      byte[] result = lookup(key);
+      if (result == null) {
+        misses.incrementAndGet();
+        result = compute.call();
+        store(key, result);
+      } else {
+        hits.incrementAndGet();
+      }
+      mine.complete(result);
+      return result;
+    } catch (Exception e) {
+      mine.completeExceptionally(e);
+      throw e;
+    } finally {
+      inFlight.remove(key, mine);
+    }
+  }
+
+  private synchronized byte[] lookup(String key) {
+    return results.get(key);
+  }
+
+  private synchronized void store(String key, byte[] result) {
+    if (result.length > maxBytes) {
+      return;
+    }
+    byte[] previous = results.put(key, result);
+    bytes += result.length - (previous == null ? 0 : previous.length);
+    Iterator<byte[]> eldest = results.values().iterator();
+    while (bytes > maxBytes) {
+      bytes -= eldest.next().length;
+      eldest.remove();
+    }
+  }
+
+  /**
+   * Summarizes the use of the cache.
+   *
+   * @return The hit, miss and coalesced counts and the size of the cached results.
+   */
+  public synchronized String report() {
+    return "cache hits " + hits.get() + ", misses " + misses.get() + ", coalesced "
+        + coalesced.get() + ", " + results.size() + " results in " + bytes / 1024 + " KB of "
+        + maxBytes / 1024 + " KB";
+  }
+}
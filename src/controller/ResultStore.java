@@ -0,0 +1,181 @@
+package controller;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.List;
+import model.ImageModel;
+
+/**
+ * An optional on-disk cache of command results that survives between runs. A command is keyed by
+ * its name, its parameters and the pixel hashes of the images it reads, with the names of the
+ * images replaced by their role, so the same operation on the same pixels hits the cache under any
+ * names. The images it produces are stored in the raw {@link model.PixelFile} format, one file per
+ * output, so a hit costs hashing the inputs and reading the outputs back.
+ *
+ * <p>The cache is enabled by setting the system property {@value #DIRECTORY_PROPERTY} to a
+ * directory. Commands that read or write files are never cached. A compressed image taken from
+ * the cache has its pixels but not its wavelet coefficients, so saving it as .wvl stores those
+ * pixels losslessly instead.
+ */
+public class ResultStore {
+
+  /** The system property naming the cache directory. */
+  public static final String DIRECTORY_PROPERTY = "imageprocessing.cache.dir";
+
+  private static final List<String> UNCACHED = Arrays.asList(
+      "load", "save", "run-script", "stats", "quit", "stream");
+
+  private static ResultStore instance;
+
+  private final Path directory;
+  private long hits;
+  private long misses;
+
+  /**
+   * Constructs a cache in the given directory.
+   *
+   * @param directory The directory holding the cached results, or null to cache nothing.
+   */
+  public ResultStore(Path directory) {
+    this.directory = directory;
+  }
+
+  /**
+   * Retrieves the cache of the application, set up from {@value #DIRECTORY_PROPERTY}.
+   *
+   * @return The shared result cache, which caches nothing if the property is not set.
+   */
+  public static synchronized ResultStore getInstance() {
+    if (instance == null) {
+      String directory = System.getProperty(DIRECTORY_PROPERTY);
+      instance = new ResultStore(directory == null ? null : Paths.get(directory));
+    }
+    return instance;
+  }
+
+  /**
+   * Executes a checked command, taking its results from the cache if they are there and storing
+   * them there otherwise.
+   *
+   * @param command The command.
+   * @param line    The command line.
+   * @param tokens  The words of the command line.
+   * @param model   The model to execute the command on.
+   * @return The result message of the command.
+   * @throws IOException If an I/O error occurs while executing the command.
+   */
+  public String execute(Command command, String line, String[] tokens, ImageModel model)
+      throws IOException {
+    if (directory == null || UNCACHED.contains(tokens[0])) {
+      return command.cmdExec(line, model);
+    }
+    List<String> outputs = ScriptPlan.outputs(tokens);
+    String key = key(tokens, outputs, model);
+    if (key != null && restore(key, outputs, model)) {
+      synchronized (this) {
+        hits++;
+      }
+      return "Command Executed Successfully";
+    }
+    synchronized (this) {
+      misses++;
+    }
+    String result = command.cmdExec(line, model);
+    if (key != null) {
+      store(key, outputs, model);
+    }
+    return result;
+  }
+
+  private String key(String[] tokens, List<String> outputs, ImageModel model) {
+    List<String> names = model.getRefNames();
+    StringBuilder key = new StringBuilder(tokens[0]);
+    for (int k = 1; k < tokens.length; k++) {
+      int output = outputs.indexOf(tokens[k]);
+      if (output >= 0) {
+        key.append(" @").append(output);
+      } else if (names.contains(tokens[k])) {
+        key.append(" #").append(model.pixelHash(tokens[k]));
+      } else {
+        key.append(' ').append(tokens[k]);
+      }
+    }
+    try {
+      StringBuilder hex = new StringBuilder();
+      byte[] digest = MessageDigest.getInstance("SHA-256")
+          .digest(key.toString().getBytes(StandardCharsets.UTF_8));
+      for (byte b : digest) {
+        hex.append(Character.forDigit(b >> 4 & 0xf, 16)).append(Character.forDigit(b & 0xf, 16));
+      }
+      return hex.toString();
+    } catch (NoSuchAlgorithmException e) {
+      return null;
+    }
+  }
+
+  private boolean restore(String key, List<String> outputs, ImageModel model) {
+    for (int k = 0; k < outputs.size(); k++) {
+      if (!Files.isRegularFile(file(key, k))) {
+        return false;
+      }
+    }
+    try {
+      for (int k = 0; k < outputs.size(); k++) {
+        try (InputStream in = new BufferedInputStream(Files.newInputStream(file(key, k)))) {
+          if (!model.readPixels(in, outputs.get(k))) {
+            return false;
+          }
+        }
+      }
+      return true;
+    } catch (IOException e) {
+      return false;
+    }
+  }
+
+  private void store(String key, List<String> outputs, ImageModel model) {
+    try {
+      Files.createDirectories(directory);
+      for (int k = 0; k < outputs.size(); k++) {
+        if (model.getImageSize(outputs.get(k)) == null) {
+          return;
+        }
+        Path temporary = Files.createTempFile(directory, key, ".tmp");
+        try (OutputStream out = new BufferedOutputStream(Files.newOutputStream(temporary))) {
+          model.writePixels(outputs.get(k), out);
+        }
+        Files.move(temporary, file(key, k), StandardCopyOption.REPLACE_EXISTING,
+            StandardCopyOption.ATOMIC_MOVE);
+      }
+    } catch (IOException e) {
+      // a result that cannot be cached is simply computed again next time
+    }
+  }
+
+  private Path file(String key, int output) {
+    return directory.resolve(key + "-" + output + ".pxl");
+  }
+
+  /**
+   * Summarizes the use of the cache.
+   *
+   * @return The hit and miss counts, or a note that the cache is disabled.
+   */
+  public synchronized String report() {
+    if (directory == null) {
+      return "result cache disabled (set -D" + DIRECTORY_PROPERTY + "=directory)";
+    }
+    return "result cache hits " + hits + ", misses " + misses + " in " + directory;
+  }
+}
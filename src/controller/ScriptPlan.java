@@ -0,0 +1,309 @@
+package controller;
+
+import controller.commands.Save;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Paths;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Scanner;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import model.DecodeCache;
+import model.ImageModel;
+import model.ImageNames;
+import view.ImageView;
+
+/**
+ * A script compiled into the list of commands it runs. Compiling splits every line once, resolves
+ * its command, inlines nested run-script files and checks every line against the image names the
+ * lines before it define, without touching any pixels. A script with errors reports all of them
+ * and runs nothing; a script without errors runs its commands with no further parsing or checks.
+ *
+ * <p>While a script runs, the files of upcoming load lines are decoded ahead on background
+ * threads into the {@link DecodeCache}, and save lines hand the writing of their files to a
+ * bounded write-behind queue, so transforms overlap with file I/O. A file that an earlier line
+ * saves is never read ahead, and a load or save of a file waits for the pending save of that file;
+ * a stream line waits for every pending save.
+ * Results, including failed writes, are still printed in script order.
+ */
+public class ScriptPlan {
+
+  private static final int MAX_NESTING = 16;
+  private static final int PREFETCH_AHEAD = 2;
+  private static final int WRITE_QUEUE = 4;
+
+  private final List<Step> steps = new ArrayList<>();
+  private final List<String> errors = new ArrayList<>();
+  private final Set<String> saved = new HashSet<>();
+
+  /**
+   * One compiled line of a script.
+   */
+  private static class Step {
+    private final Command command;
+    private final String line;
+    private final String[] tokens;
+    private final String path;
+    private boolean prefetch;
+
+    private Step(Command command, String line, String[] tokens) {
+      this.command = command;
+      this.line = line;
+      this.tokens = tokens;
+      boolean file = tokens[0].equals("load") || tokens[0].equals("save");
+      this.path = file ? absolute(tokens[1]) : null;
+    }
+  }
+
+  private ScriptPlan() {
+  }
+
+  private static String absolute(String path) {
+    return Paths.get(path).toAbsolutePath().normalize().toString();
+  }
+
+  /**
+   * Compiles a script.
+   *
+   * @param scanner  The scanner reading the lines of the script; it is closed once read.
+   * @param names    The names of the images that exist before the script runs.
+   * @param commands Resolves a command name to its command, or to null for an unknown name.
+   * @return The compiled script, holding either its steps or its errors.
+   */
+  public static ScriptPlan compile(
+      Scanner scanner, List<String> names, Function<String, Command> commands) {
+    ScriptPlan plan = new ScriptPlan();
+    plan.compile(scanner, "", new ArrayList<>(names), commands, 0);
+    return plan;
+  }
+
+  private void compile(Scanner scanner, String source, List<String> names,
+      Function<String, Command> commands, int depth) {
+    // the names the lines so far define, as the commands will see them when they run
+    ImageNames defined = () -> new ArrayList<>(names);
+    int number = 0;
+    while (scanner.hasNextLine()) {
+      String line = scanner.nextLine().trim();
+      number++;
+      if (line.isEmpty() || line.charAt(0) == '#') {
+        continue;
+      }
+      String location = source + "line " + number + ": ";
+      String[] tokens = line.split(" ");
+      if (tokens[0].equals("quit")) {
+        steps.add(new Step(null, line, tokens));
+        continue;
+      }
+      Command command = commands.apply(tokens[0]);
+      if (command == null) {
+        errors.add(location + "Invalid Command " + tokens[0]);
+        continue;
+      }
+      String check = command.cmdCheck(line, defined);
+      if (!check.equals("Valid Command Format")) {
+        errors.add(location + check.replace(" \n", " "));
+        continue;
+      }
+      if (tokens[0].equals("run-script")) {
+        if (depth == MAX_NESTING) {
+          errors.add(location + "run-script nested too deeply");
+          continue;
+        }
+        try {
+          compile(new Scanner(new FileInputStream(tokens[1])), tokens[1] + " ",
+              names, commands, depth + 1);
+        } catch (FileNotFoundException e) {
+          errors.add(location + "File " + tokens[1] + " not found!");
+        }
+        continue;
+      }
+      Step step = new Step(command, line, tokens);
+      if (tokens[0].equals("load")) {
+        if (!new File(tokens[1]).isFile() && !saved.contains(step.path)) {
+          errors.add(location + "File " + tokens[1] + " not found!");
+        }
+        step.prefetch = tokens.length == 3 && !step.path.endsWith(".wvl")
+            && !saved.contains(step.path);
+      } else if (tokens[0].equals("save")) {
+        saved.add(step.path);
+      } else if (tokens[0].equals("stream")) {
+        String input = tokens[tokens.length - 2];
+        if (!new File(input).isFile() && !saved.contains(absolute(input))) {
+          errors.add(location + "File " + input + " not found!");
+        }
+        saved.add(absolute(tokens[tokens.length - 1]));
+      }
+      for (String output : outputs(tokens)) {
+        if (!names.contains(output)) {
+          names.add(output);
+        }
+      }
+      steps.add(step);
+    }
+    scanner.close();
+  }
+
+  /**
+   * Lists the image names a valid line defines.
+   *
+   * @param tokens The words of the line.
+   * @return The names of the images the line creates or replaces.
+   */
+  static List<String> outputs(String[] tokens) {
+    switch (tokens[0]) {
+      case "load":
+      case "rgb-combine":
+        return Collections.singletonList(tokens[tokens[0].equals("load") ? 2 : 1]);
+      case "rgb-split":
+        return Arrays.asList(tokens).subList(tokens.length - 3, tokens.length);
+      case "save":
+      case "stats":
+      case "stream":
+        return Collections.emptyList();
+      default:
+        return Collections.singletonList(tokens[tokens.length - 1]);
+    }
+  }
+
+  /**
+   * Retrieves the errors found while compiling.
+   *
+   * @return The errors, one per invalid line, in script order; empty if the script is valid.
+   */
+  public List<String> getErrors() {
+    return Collections.unmodifiableList(errors);
+  }
+
+  /**
+   * Retrieves the number of commands the script runs.
+   *
+   * @return The number of compiled steps.
+   */
+  public int size() {
+    return steps.size();
+  }
+
+  /**
+   * Runs the compiled commands in order, printing the result of each. A quit line ends the
+   * script. The script must have compiled without errors.
+   *
+   * @param model  The model to run the commands on.
+   * @param view   The view printing the results.
+   * @param output The stream the results are printed to.
+   * @throws IOException If an I/O error occurs while executing a command.
+   */
+  public void run(ImageModel model, ImageView view, OutputStream output) throws IOException {
+    if (!errors.isEmpty()) {
+      throw new IllegalStateException("The script has errors");
+    }
+    CommandMetrics metrics = CommandMetrics.getInstance();
+    ResultStore store = ResultStore.getInstance();
+    ExecutorService readers = Executors.newFixedThreadPool(PREFETCH_AHEAD, ScriptPlan::daemon);
+    ThreadPoolExecutor writers = new ThreadPoolExecutor(1, 1, 0, TimeUnit.SECONDS,
+        new ArrayBlockingQueue<>(WRITE_QUEUE), ScriptPlan::daemon,
+        new ThreadPoolExecutor.CallerRunsPolicy());
+    Map<Step, Future<?>> prefetched = new HashMap<>();
+    Map<String, Future<String>> writes = new HashMap<>();
+    Deque<Future<String>> results = new ArrayDeque<>();
+    int scanned = 0;
+    try {
+      for (Step step : steps) {
+        if (step.command == null) {
+          break;
+        }
+        for (; scanned < steps.size() && prefetched.size() < PREFETCH_AHEAD; scanned++) {
+          Step ahead = steps.get(scanned);
+          if (ahead.command == null) {
+            scanned = steps.size();
+          } else if (ahead.prefetch && !prefetched.containsKey(ahead)) {
+            File file = new File(ahead.path);
+            prefetched.put(ahead,
+                readers.submit(() -> DecodeCache.getInstance().load(file, null)));
+          }
+        }
+        if (step.path != null) {
+          await(prefetched.remove(step));
+          await(writes.remove(step.path));
+        } else if (step.tokens[0].equals("stream")) {
+          for (Future<String> write : writes.values()) {
+            await(write);
+          }
+          writes.clear();
+        }
+        CommandMetrics.Sample sample = metrics.start();
+        if (step.command instanceof Save) {
+          Save.PendingWrite write = ((Save) step.command).prepare(step.line, model);
+          Future<String> written = writers.submit(write::call);
+          writes.put(step.path, written);
+          results.add(written);
+        } else {
+          results.add(CompletableFuture.completedFuture(
+              store.execute(step.command, step.line, step.tokens, model)));
+        }
+        sample.stop(step.tokens[0], model.getImageSize(step.tokens[step.tokens.length - 1]));
+        while (!results.isEmpty() && results.peek().isDone()) {
+          print(results.poll(), view, output);
+        }
+      }
+      while (!results.isEmpty()) {
+        print(results.poll(), view, output);
+      }
+    } finally {
+      readers.shutdownNow();
+      writers.shutdown();
+    }
+  }
+
+  private static void print(Future<String> result, ImageView view, OutputStream output)
+      throws IOException {
+    String message;
+    try {
+      message = result.get();
+    } catch (ExecutionException e) {
+      message = "Save failed: " + e.getCause().getMessage();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      message = "Save interrupted";
+    }
+    view.viewOutput(message, output);
+    output.flush();
+  }
+
+  private static void await(Future<?> pending) {
+    if (pending == null) {
+      return;
+    }
+    try {
+      pending.get();
+    } catch (ExecutionException e) {
+      // the command reads or writes the file again and reports the failure itself
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+  }
+
+  private static Thread daemon(Runnable task) {
+    Thread thread = new Thread(task, "script-io");
+    thread.setDaemon(true);
+    return thread;
+  }
+}
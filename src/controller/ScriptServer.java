@@ -0,0 +1,192 @@
+package controller;
+
+import java.io.BufferedOutputStream;
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Scanner;
+import model.ImageModel;
+import view.ImageView;
+
+/**
+ * Runs scripts sent over a loopback socket against one long-lived model, so the JVM, the
+ * compiled code and the decoded images stay warm between jobs. A client connects, writes the
+ * lines of a script, closes its side of the connection and reads the results back; jobs run one
+ * after the other in the order they connect.
+ *
+ * <p>Images loaded by a job stay registered under their names. A later job that loads the same
+ * unchanged file under the same name uses the registered image instead of decoding the file
+ * again; every other image a job creates is removed once the job ends, so the next job can reuse
+ * its names.
+ *
+ * <p>The server does not run in the folder of its clients, so every file path in a job must be
+ * absolute; a job with a relative path is refused before it runs. Scripts that a job runs with
+ * run-script are read by the server, and relative paths in them resolve against the folder the
+ * server was started in.
+ */
+public class ScriptServer {
+
+  /** The port the server listens on unless another one is given. */
+  public static final int DEFAULT_PORT = 7878;
+
+  private final ImageModel model;
+  private final ImageView view = ScriptServer::writeLine;
+  private final int port;
+  private final Map<String, String> loaded = new HashMap<>();
+
+  /**
+   * Constructs a server.
+   *
+   * @param model The model shared by all jobs.
+   * @param port  The loopback port to listen on.
+   */
+  public ScriptServer(ImageModel model, int port) {
+    this.model = model;
+    this.port = port;
+  }
+
+  /**
+   * Accepts and runs jobs until the process ends.
+   *
+   * @throws IOException If the server socket cannot be opened.
+   */
+  public void serve() throws IOException {
+    try (ServerSocket server = new ServerSocket(port, 50, InetAddress.getLoopbackAddress())) {
+      System.out.println("Serving on " + server.getLocalSocketAddress());
+      while (true) {
+        try (Socket client = server.accept()) {
+          handle(client);
+        } catch (IOException e) {
+          System.out.println("Job failed: " + e.getMessage());
+        }
+      }
+    }
+  }
+
+  private void handle(Socket client) throws IOException {
+    BufferedReader reader = new BufferedReader(
+        new InputStreamReader(client.getInputStream(), StandardCharsets.UTF_8));
+    List<String> lines = new ArrayList<>();
+    String line;
+    while ((line = reader.readLine()) != null) {
+      lines.add(line);
+    }
+    OutputStream out = new BufferedOutputStream(client.getOutputStream());
+    runJob(lines, out);
+    out.flush();
+  }
+
+  /**
+   * Runs one job, writing the result of every command to the given stream. Loads of images that
+   * are already registered are turned into comments, so errors keep their line numbers. A job
+   * with a relative file path runs none of its lines.
+   *
+   * @param lines The lines of the script.
+   * @param out   The stream the results are written to.
+   * @throws IOException If an I/O error occurs while executing a command.
+   */
+  void runJob(List<String> lines, OutputStream out) throws IOException {
+    List<String> relative = new ArrayList<>();
+    for (int k = 0; k < lines.size(); k++) {
+      for (String path : paths(lines.get(k).trim().split(" "))) {
+        if (!new File(path).isAbsolute()) {
+          relative.add("line " + (k + 1) + ": The server needs an absolute path, not " + path);
+        }
+      }
+    }
+    if (!relative.isEmpty()) {
+      view.viewOutput(String.join("\n", relative)
+          + "\nScript not run: " + relative.size() + " error(s)", out);
+      return;
+    }
+
+    StringBuilder script = new StringBuilder();
+    Map<String, String> loads = new HashMap<>();
+    for (String line : lines) {
+      String[] tokens = line.trim().split(" ");
+      if (tokens[0].equals("load") && tokens.length >= 3) {
+        String key = fileKey(tokens);
+        if (key.equals(loaded.get(tokens[2]))) {
+          script.append("# already loaded: ").append(line).append('\n');
+          continue;
+        }
+        if (loaded.remove(tokens[2]) != null) {
+          model.evict(tokens[2]);
+        }
+        loads.put(tokens[2], key);
+      }
+      script.append(line).append('\n');
+    }
+
+    ImageControllerImplementation controller = new ImageControllerImplementation(
+        model, new ByteArrayInputStream(new byte[0]), out, view);
+    ScriptPlan plan = controller.compile(new Scanner(script.toString()), model.getRefNames());
+    try {
+      if (plan.getErrors().isEmpty()) {
+        plan.run(model, view, out);
+      } else {
+        view.viewOutput(String.join("\n", plan.getErrors())
+            + "\nScript not run: " + plan.getErrors().size() + " error(s)", out);
+      }
+    } finally {
+      for (Map.Entry<String, String> load : loads.entrySet()) {
+        if (model.getImageSize(load.getKey()) != null) {
+          loaded.put(load.getKey(), load.getValue());
+        }
+      }
+      for (String name : model.getRefNames()) {
+        if (!loaded.containsKey(name)) {
+          model.evict(name);
+        }
+      }
+    }
+  }
+
+  private static void writeLine(String text, OutputStream out) {
+    try {
+      out.write((text + "\n").getBytes(StandardCharsets.UTF_8));
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  /**
+   * Lists the file paths a line reads or writes.
+   *
+   * @param tokens The words of the line.
+   * @return The paths, empty for a line that touches no file.
+   */
+  private static List<String> paths(String[] tokens) {
+    switch (tokens[0]) {
+      case "load":
+      case "save":
+      case "run-script":
+        return tokens.length >= 2 ? Arrays.asList(tokens[1]) : new ArrayList<>();
+      case "stream":
+        return tokens.length >= 3
+            ? Arrays.asList(tokens).subList(tokens.length - 2, tokens.length) : new ArrayList<>();
+      default:
+        return new ArrayList<>();
+    }
+  }
+
+  private static String fileKey(String[] tokens) {
+    File file = new File(tokens[1]);
+    String options = String.join(" ", Arrays.asList(tokens).subList(3, tokens.length));
+    return file.getAbsolutePath() + " " + file.lastModified() + " " + file.length()
+        + " " + options;
+  }
+}
@@ -18,15 +18,29 @@ import controller.commands.VerticalFlip;
 import java.awt.image.BufferedImage;
 import java.io.IOException;
 import java.util.Objects;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import javax.swing.SwingUtilities;
 import model.ImageModel;
 import view.UIInterface;
 
 /** Controller for the GUI that extends features and ImageController interface. */
 public class UIController implements Features, ImageController {
 
+  private static final int PREVIEW_FACTOR = 8;
+
+  private final ExecutorService refiner = Executors.newSingleThreadExecutor(r -> {
+    Thread thread = new Thread(r, "wavelet-refiner");
+    thread.setDaemon(true);
+    return thread;
+  });
+
   private ImageModel model;
   private UIInterface view;
   private String loadedImage;
+  private Future<?> refinement;
 
   /**
    * Constructor that sets the model and view.
@@ -83,7 +97,7 @@ public class UIController implements Features, ImageController {
 
   @Override
   public void loadImage() throws IOException {
-    if (model.checkImageLoaded()) {
+    if (imageLoaded()) {
       view.warnNewLoadSave();
     }
     String filePath = view.fetchFilePath("Open File");
@@ -101,21 +115,96 @@ public class UIController implements Features, ImageController {
         || extension.equals("png")
         || extension.equals("bmp")
         || extension.equals("jpeg")
-        || extension.equals("jpg"))) {
+        || extension.equals("jpg")
+        || extension.equals("wvl"))) {
       view.errInvalidExt();
       return;
     }
     String command = "load " + filePath + " " + loadedImage;
     Command cmd = new Load();
+    if (extension.equals("wvl")) {
+      loadProgressively(cmd, command);
+      return;
+    }
     String status = cmd.cmdExec(command, model);
     if (status.equals("Command Executed Successfully")) {
       setLoadedImage();
     }
   }
 
+  /**
+   * Shows a reduced preview of a wavelet image at once and decodes the full image in the
+   * background, replacing the preview when it is done.
+   *
+   * @param cmd     The load command.
+   * @param command The command loading the full image.
+   * @throws IOException throws if file not found
+   */
+  private void loadProgressively(Command cmd, String command) throws IOException {
+    String status = cmd.cmdExec(command + " -scale " + PREVIEW_FACTOR, model);
+    if (!status.equals("Command Executed Successfully")) {
+      return;
+    }
+    setLoadedImage();
+    refinement = refiner.submit(() -> {
+      cmd.cmdExec(command, model);
+      SwingUtilities.invokeLater(this::showRefinement);
+      return null;
+    });
+  }
+
+  /**
+   * Shows the full image once its background decode has finished, unless a feature has already
+   * waited for it and shown its own result.
+   */
+  private void showRefinement() {
+    if (refinement == null || !refinement.isDone()) {
+      return;
+    }
+    try {
+      awaitRefinement();
+      setLoadedImage();
+    } catch (IOException e) {
+      // the preview stays on screen
+    }
+  }
+
+  /**
+   * Waits for the background decode of a previewed image, so that no feature works on the
+   * preview or reads the model while the decode writes to it.
+   *
+   * @throws IOException throws if the full image could not be decoded
+   */
+  private void awaitRefinement() throws IOException {
+    if (refinement == null) {
+      return;
+    }
+    try {
+      refinement.get();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new IOException(e);
+    } catch (ExecutionException e) {
+      throw new IOException(e.getCause());
+    } finally {
+      refinement = null;
+    }
+  }
+
+  /**
+   * Checks whether an image is loaded, first waiting for the full decode of a previewed image.
+   *
+   * @return true if an image is loaded
+   * @throws IOException throws if the full image could not be decoded
+   */
+  private boolean imageLoaded() throws IOException {
+    awaitRefinement();
+    return model.checkImageLoaded();
+  }
+
   @Override
   public void saveImage() throws IOException {
-    if (!model.checkImageLoaded()) {
+    if (!imageLoaded()) {
       view.errNoImg();
       return;
     }
@@ -127,7 +216,7 @@ public class UIController implements Features, ImageController {
 
   @Override
   public void blurImage(double threshold) throws IOException {
-    if (!model.checkImageLoaded()) {
+    if (!imageLoaded()) {
       view.errNoImg();
       return;
     }
@@ -139,7 +228,7 @@ public class UIController implements Features, ImageController {
 
   @Override
   public void verticalFlip() throws IOException {
-    if (!model.checkImageLoaded()) {
+    if (!imageLoaded()) {
       view.errNoImg();
       return;
     }
@@ -151,7 +240,7 @@ public class UIController implements Features, ImageController {
 
   @Override
   public void greyscaleImage() throws IOException {
-    if (!model.checkImageLoaded()) {
+    if (!imageLoaded()) {
       view.errNoImg();
       return;
     }
@@ -163,7 +252,7 @@ public class UIController implements Features, ImageController {
 
   @Override
   public void compressImage(int splitPercentage) throws IOException {
-    if (!model.checkImageLoaded()) {
+    if (!imageLoaded()) {
       view.errNoImg();
       return;
     }
@@ -175,7 +264,7 @@ public class UIController implements Features, ImageController {
 
   @Override
   public void sepia(double threshold) throws IOException {
-    if (!model.checkImageLoaded()) {
+    if (!imageLoaded()) {
       view.errNoImg();
       return;
     }
@@ -187,7 +276,7 @@ public class UIController implements Features, ImageController {
 
   @Override
   public void colorCorrect() throws IOException {
-    if (!model.checkImageLoaded()) {
+    if (!imageLoaded()) {
       view.errNoImg();
       return;
     }
@@ -199,7 +288,7 @@ public class UIController implements Features, ImageController {
 
   @Override
   public void levelsAdjustment(int b, int m, int w, double splitPercentage) throws IOException {
-    if (!model.checkImageLoaded()) {
+    if (!imageLoaded()) {
       view.errNoImg();
       return;
     }
@@ -223,7 +312,7 @@ public class UIController implements Features, ImageController {
 
   @Override
   public void sharpen() throws IOException {
-    if (!model.checkImageLoaded()) {
+    if (!imageLoaded()) {
       view.errNoImg();
       return;
     }
@@ -235,7 +324,7 @@ public class UIController implements Features, ImageController {
 
   @Override
   public void horizontalFlip() throws IOException {
-    if (!model.checkImageLoaded()) {
+    if (!imageLoaded()) {
       view.errNoImg();
       return;
     }
@@ -247,7 +336,7 @@ public class UIController implements Features, ImageController {
 
   @Override
   public void redComp() throws IOException {
-    if (!model.checkImageLoaded()) {
+    if (!imageLoaded()) {
       view.errNoImg();
       return;
     }
@@ -259,7 +348,7 @@ public class UIController implements Features, ImageController {
 
   @Override
   public void greenComp() throws IOException {
-    if (!model.checkImageLoaded()) {
+    if (!imageLoaded()) {
       view.errNoImg();
       return;
     }
@@ -271,7 +360,7 @@ public class UIController implements Features, ImageController {
 
   @Override
   public void blueComp() throws IOException {
-    if (!model.checkImageLoaded()) {
+    if (!imageLoaded()) {
       view.errNoImg();
       return;
     }
@@ -283,7 +372,7 @@ public class UIController implements Features, ImageController {
 
   @Override
   public void brightenImage() throws IOException {
-    if (!model.checkImageLoaded()) {
+    if (!imageLoaded()) {
       view.errNoImg();
       return;
     }
@@ -3,6 +3,7 @@ package controller.commands;
 import controller.Command;
 import java.io.IOException;
 import model.ImageModel;
+import model.ImageNames;
 
 /**
  * The Blur class represents a command for applying blurring effects to images. It implements the
@@ -14,11 +15,11 @@ public class Blur implements Command {
    * Checks the format and validity of the blur command.
    *
    * @param command The input command string.
-   * @param model The ImageModel used for image operations.
+   * @param model The names of the images the command will run on.
    * @return A message indicating the status of the command format.
    */
   @Override
-  public String cmdCheck(String command, ImageModel model) {
+  public String cmdCheck(String command, ImageNames model) {
     String[] splitCommands = command.split(" ");
     if (splitCommands.length != 3) {
       return "blur command format is not correct \n" + "Format: blur image-name dest-image-name";
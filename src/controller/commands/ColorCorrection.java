@@ -3,6 +3,7 @@ package controller.commands;
 import controller.Command;
 import java.io.IOException;
 import model.ImageModel;
+import model.ImageNames;
 
 /**
  * The ColorCorrection class represents a command for correcting the color of an image. It
@@ -14,11 +15,11 @@ public class ColorCorrection implements Command {
    * Checks the format and validity of the color correction command.
    *
    * @param command The input command string.
-   * @param model The ImageModel used for image operations.
+   * @param model The names of the images the command will run on.
    * @return A message indicating the status of the command format.
    */
   @Override
-  public String cmdCheck(String command, ImageModel model) {
+  public String cmdCheck(String command, ImageNames model) {
     String[] splitCommands = command.split(" ");
 
     if (!model.getRefNames().contains(splitCommands[1])) {
@@ -4,6 +4,7 @@ package controller.commands;
 import controller.Command;
 import java.io.IOException;
 import model.ImageModel;
+import model.ImageNames;
 
 /**
  * The Compress class represents a command for compressing images.
@@ -14,24 +15,58 @@ public class Compress implements Command {
    * Checks the format and validity of the compress command.
    *
    * @param command The input command string.
-   * @param model   The ImageModel used for image operations.
+   * @param model   The names of the images the command will run on.
    * @return A message indicating the status of the command format.
    */
   @Override
-  public String cmdCheck(String command, ImageModel model) {
+  public String cmdCheck(String command, ImageNames model) {
     String[] splitCommands = command.split(" ");
+    if (splitCommands.length == 4 && splitCommands[1].equals("-lossless")) {
+      return checkNames(splitCommands[2], splitCommands[3], model);
+    } else if (splitCommands.length == 5
+        && (splitCommands[1].equals("-tiled") || splitCommands[1].equals("-dct"))) {
+      try {
+        Integer.parseInt(splitCommands[2]);
+      } catch (NumberFormatException e) {
+        return "The third part of the command should be a number";
+      }
+      return checkNames(splitCommands[3], splitCommands[4], model);
+    } else if (splitCommands.length == 5
+        && (splitCommands[1].equals("-psnr") || splitCommands[1].equals("-size"))) {
+      return checkTarget(splitCommands, model);
+    }
     if (splitCommands.length != 4) {
       return "compress command format is not correct \n"
-              + "Format: compress percent image-path";
+              + "Format: compress percent image-name dest-image-name\n"
+              + "Format: compress -psnr decibels image-name dest-image-name\n"
+              + "Format: compress -size bytes image-name dest-image-name\n"
+              + "Format: compress -tiled percent image-name dest-image-name\n"
+              + "Format: compress -dct percent image-name dest-image-name\n"
+              + "Format: compress -lossless image-name dest-image-name";
     }
     try {
       Integer.parseInt(splitCommands[1]);
     } catch (NumberFormatException e) {
       return "The second part of the command should be a number";
     }
-    if (!model.getRefNames().contains(splitCommands[2])) {
+    return checkNames(splitCommands[2], splitCommands[3], model);
+  }
+
+  private String checkTarget(String[] splitCommands, ImageNames model) {
+    try {
+      if (Double.parseDouble(splitCommands[2]) <= 0) {
+        return "The " + splitCommands[1] + " target should be positive";
+      }
+    } catch (NumberFormatException e) {
+      return "The third part of the command should be a number";
+    }
+    return checkNames(splitCommands[3], splitCommands[4], model);
+  }
+
+  private String checkNames(String imageName, String destImageName, ImageNames model) {
+    if (!model.getRefNames().contains(imageName)) {
       return "image-name not present";
-    } else if (model.getRefNames().contains(splitCommands[3])) {
+    } else if (model.getRefNames().contains(destImageName)) {
       return "destination image-name "
               + "already used by another image";
     }
@@ -49,7 +84,20 @@ public class Compress implements Command {
   @Override
   public String cmdExec(String command, ImageModel model) throws IOException {
     String[] splitCommands = command.split(" ");
-    System.out.println("Compressed cmdExc");
+    if (splitCommands[1].equals("-lossless")) {
+      model.compressLossless(splitCommands[2], splitCommands[3]);
+      return "Command Executed Successfully";
+    } else if (splitCommands.length == 5 && splitCommands[1].equals("-tiled")) {
+      model.compressTiled(splitCommands[3], splitCommands[4], Integer.parseInt(splitCommands[2]));
+      return "Command Executed Successfully";
+    } else if (splitCommands.length == 5 && splitCommands[1].equals("-dct")) {
+      model.compressDct(splitCommands[3], splitCommands[4], Integer.parseInt(splitCommands[2]));
+      return "Command Executed Successfully";
+    } else if (splitCommands.length == 5) {
+      model.compressToTarget(splitCommands[3], splitCommands[4],
+          splitCommands[1].substring(1), Double.parseDouble(splitCommands[2]));
+      return "Command Executed Successfully";
+    }
     model.compress(splitCommands[2], splitCommands[3], Integer.parseInt( splitCommands[1]));
     return "Command Executed Successfully";
   }
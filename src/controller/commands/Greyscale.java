@@ -3,6 +3,7 @@ package controller.commands;
 import controller.Command;
 import java.io.IOException;
 import model.ImageModel;
+import model.ImageNames;
 
 /**
  * The Greyscale class represents a command for applying greyscale filters to images. It implements
@@ -14,11 +15,11 @@ public class Greyscale implements Command {
    * Checks the format and validity of the greyscale command.
    *
    * @param command The input command string.
-   * @param model The ImageModel used for image operations.
+   * @param model The names of the images the command will run on.
    * @return A message indicating the status of the command format.
    */
   @Override
-  public String cmdCheck(String command, ImageModel model) {
+  public String cmdCheck(String command, ImageNames model) {
     String[] splitCommands = command.split(" ");
     if (!(splitCommands.length == 3 || splitCommands.length == 4)) {
       return "greyscale command format is not correct \n"
@@ -9,6 +9,7 @@ import java.awt.image.BufferedImage;
 import java.io.IOException;
 import java.util.Arrays;
 import model.ImageModel;
+import model.ImageNames;
 
 /**
  * The Histogram class represents a command for generating histograms of images. It implements the
@@ -20,11 +21,11 @@ public class Histogram implements Command {
    * Checks the format and validity of the histogram command.
    *
    * @param command The input command string.
-   * @param model The ImageModel used for image operations.
+   * @param model The names of the images the command will run on.
    * @return A message indicating the status of the command format.
    */
   @Override
-  public String cmdCheck(String command, ImageModel model) {
+  public String cmdCheck(String command, ImageNames model) {
     String[] splitCommands = command.split(" ");
     if (splitCommands.length != 3) {
       return "histogram command format is not correct \n"
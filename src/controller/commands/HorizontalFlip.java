@@ -4,6 +4,7 @@ import java.io.IOException;
 
 import controller.Command;
 import model.ImageModel;
+import model.ImageNames;
 
 /**
  * The HorizontalFlip class represents a command for flipping images horizontally.
@@ -15,11 +16,11 @@ public class HorizontalFlip implements Command {
    * Checks the format and validity of the horizontal flip command.
    *
    * @param command The input command string.
-   * @param model   The ImageModel used for image operations.
+   * @param model   The names of the images the command will run on.
    * @return A message indicating the status of the command format.
    */
   @Override
-  public String cmdCheck(String command, ImageModel model) {
+  public String cmdCheck(String command, ImageNames model) {
     String[] splitCommands = command.split(" ");
     if (splitCommands.length != 3) {
       return "horizontal-flip command format is not correct \n"
@@ -3,6 +3,7 @@ package controller.commands;
 import controller.Command;
 import java.io.IOException;
 import model.ImageModel;
+import model.ImageNames;
 
 /**
  * The LevelAdjust class represents a command for adjusting levels in an image. It implements the
@@ -11,7 +12,7 @@ import model.ImageModel;
 public class LevelsAdjustment implements Command {
 
   @Override
-  public String cmdCheck(String command, ImageModel model) {
+  public String cmdCheck(String command, ImageNames model) {
     String[] splitCommands = command.split(" ");
 
     try {
@@ -1,49 +1,151 @@
 package controller.commands;
 
 import controller.Command;
-import java.awt.image.BufferedImage;
+import java.awt.Rectangle;
+import java.io.BufferedInputStream;
 import java.io.File;
 import java.io.FileInputStream;
 import java.io.FileNotFoundException;
 import java.io.IOException;
+import java.io.InputStream;
 import java.nio.file.Path;
 import java.nio.file.Paths;
-import java.util.Scanner;
-import javax.imageio.ImageIO;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
 import model.ImageModel;
+import model.ImageNames;
+import model.events.ImageLoadEvent;
 
 /**
  * The Load class represents a command to load images. It implements the Command interface for
  * executing load operations.
  */
 public class Load implements Command {
+
+  private static final String FORMAT = "load command format is not correct \n "
+      + "Format: load image-path image-name [-region x y width height] [-subsample n] "
+      + "[-scale factor]";
+
+  private static final List<String> OPTIONS = Arrays.asList("-region", "-subsample", "-scale");
+
   /**
    * Checks the format and validity of the load command.
    *
    * @param command The input command string.
-   * @param model The ImageModel used for image operations.
+   * @param model The names of the images the command will run on.
    * @return A message indicating the status of the command format.
    */
   @Override
-  public String cmdCheck(String command, ImageModel model) {
+  public String cmdCheck(String command, ImageNames model) {
 
     String[] splitCommands = command.split(" ");
+    if (splitCommands.length < 3) {
+      return FORMAT;
+    }
     int dot = splitCommands[1].lastIndexOf('.');
     String format = splitCommands[1].substring(dot + 1);
-    if (splitCommands.length != 3) {
-      return "load command format is not correct \n " + "Format: load image-path image-name";
-    } else if (!(format.equals("jpeg")
+    if (!(format.equals("jpeg")
         || format.equals("png")
         || format.equals("ppm")
         || format.equals("jpg")
-        || format.equals("bmp"))) {
+        || format.equals("bmp")
+        || format.equals("wvl"))) {
       return "Incorrect File Extension";
+    }
+    String options = checkOptions(splitCommands, format.equals("wvl"));
+    if (options != null) {
+      return options;
     } else if (model.getRefNames().contains(splitCommands[2])) {
       return "image-name already used by another image";
     }
     return "Valid Command Format";
   }
 
+  /**
+   * Checks the options after the image name of a load command.
+   *
+   * @param splitCommands The words of the command.
+   * @param wavelet Whether the file is a wavelet file.
+   * @return null if the options are valid, or the reason they are not.
+   */
+  private static String checkOptions(String[] splitCommands, boolean wavelet) {
+    Set<String> seen = new HashSet<>();
+    int k = 3;
+    while (k < splitCommands.length) {
+      String option = splitCommands[k];
+      int values = option.equals("-region") ? 4 : 1;
+      if (!OPTIONS.contains(option) || !seen.add(option)
+          || k + values >= splitCommands.length) {
+        return FORMAT;
+      }
+      if (option.equals("-scale")) {
+        if (!wavelet) {
+          return "-scale is only supported for wvl files";
+        } else if (scaleLevels(splitCommands[k + 1]) < 0) {
+          return "The scale factor should be a power of two";
+        }
+      } else if (wavelet) {
+        return option + " is not supported for wvl files, use -scale";
+      } else if (option.equals("-subsample") && positive(splitCommands[k + 1]) < 1) {
+        return "The subsampling factor should be a positive integer";
+      } else if (option.equals("-region")) {
+        for (int v = 1; v <= 4; v++) {
+          int value = positive(splitCommands[k + v]);
+          if (value < 0 || (v > 2 && value == 0)) {
+            return "The region should be x y width height, with a positive width and height";
+          }
+        }
+      }
+      k += values + 1;
+    }
+    return null;
+  }
+
+  private static int positive(String value) {
+    try {
+      return Math.max(-1, Integer.parseInt(value));
+    } catch (NumberFormatException e) {
+      return -1;
+    }
+  }
+
+  /**
+   * Finds an option of a load command.
+   *
+   * @param splitCommands The words of the command.
+   * @param option The option, such as -region.
+   * @return The index of the option, or -1 if the command does not have it.
+   */
+  private static int indexOf(String[] splitCommands, String option) {
+    for (int k = 3; k < splitCommands.length; k++) {
+      if (splitCommands[k].equals(option)) {
+        return k;
+      }
+    }
+    return -1;
+  }
+
+  /**
+   * Converts a reduction factor of the load command to the number of wavelet levels to skip.
+   *
+   * @param factor The reduction factor, such as 8 for an image of 1/8 of the full size.
+   * @return The number of levels to skip, or -1 if the factor is not a power of two.
+   */
+  static int scaleLevels(String factor) {
+    int value;
+    try {
+      value = Integer.parseInt(factor);
+    } catch (NumberFormatException e) {
+      return -1;
+    }
+    if (value <= 0 || Integer.bitCount(value) != 1) {
+      return -1;
+    }
+    return Integer.numberOfTrailingZeros(value);
+  }
+
   /**
    * Executes the load command to load an image.
    *
@@ -55,36 +157,71 @@ public class Load implements Command {
   @Override
   public String cmdExec(String command, ImageModel model) throws IOException {
     String[] splitCommands = command.split(" ");
-    Scanner scanner = null;
-    BufferedImage image = null;
+    ImageLoadEvent event = new ImageLoadEvent();
+    event.begin();
+    InputStream wavelet = null;
     Path path = Paths.get(splitCommands[1]);
     String fileName = path.getFileName().toString();
     int dot = fileName.lastIndexOf('.');
     String format = fileName.substring(dot + 1);
 
-    try {
-      if (format.equals("ppm")) {
-        scanner = new Scanner(new FileInputStream(splitCommands[1]));
-      } else if (format.equals("jpeg")
-          || format.equals("png")
-          || format.equals("jpg")
-          || format.equals("bmp")) {
-        File file = new File(splitCommands[1]);
-        image = ImageIO.read(file);
-      }
-
-    } catch (FileNotFoundException e) {
+    File file = new File(splitCommands[1]);
+    if (!file.isFile()) {
       return "File " + splitCommands[1] + " not found!";
     }
+    if (format.equals("wvl")) {
+      try {
+        wavelet = new BufferedInputStream(new FileInputStream(file));
+      } catch (FileNotFoundException e) {
+        return "File " + splitCommands[1] + " not found!";
+      }
+    }
+    int region = indexOf(splitCommands, "-region");
+    int subsample = indexOf(splitCommands, "-subsample");
+    Rectangle area = region < 0 ? null : new Rectangle(
+        Integer.parseInt(splitCommands[region + 1]), Integer.parseInt(splitCommands[region + 2]),
+        Integer.parseInt(splitCommands[region + 3]), Integer.parseInt(splitCommands[region + 4]));
+    int step = subsample < 0 ? 1 : Integer.parseInt(splitCommands[subsample + 1]);
     if (format.equals("ppm")) {
-      boolean success = model.loadImage(scanner, splitCommands[2]);
+      boolean success;
+      try {
+        success = model.loadImage(file, splitCommands[2], area, step);
+      } catch (IllegalArgumentException e) {
+        return e.getMessage();
+      }
       if (!success) {
         return "Invalid PPM file: plain RAW file should " + "begin with P3";
       }
+    } else if (format.equals("wvl")) {
+      boolean success;
+      try {
+        int option = indexOf(splitCommands, "-scale");
+        int scale = option < 0 ? 0 : scaleLevels(splitCommands[option + 1]);
+        success = model.loadWavelet(wavelet, splitCommands[2], scale);
+      } finally {
+        wavelet.close();
+      }
+      if (!success) {
+        return "Invalid wavelet file: it should begin with WVL1 and be complete";
+      }
     } else {
-      model.loadImage(image, splitCommands[2]);
+      boolean success;
+      try {
+        success = model.loadImage(file, splitCommands[2], area, step);
+      } catch (IllegalArgumentException e) {
+        return e.getMessage();
+      }
+      if (!success) {
+        return "Invalid image file: " + splitCommands[1] + " could not be decoded";
+      }
     }
 
+    int[] size = model.getImageSize(splitCommands[2]);
+    if (event.shouldCommit() && size != null) {
+      event.path = splitCommands[1];
+      event.setImage(splitCommands[2], size[0], size[1]);
+      event.commit();
+    }
     return "Command Executed Successfully";
   }
 }
@@ -3,6 +3,7 @@ package controller.commands;
 import controller.Command;
 import java.io.IOException;
 import model.ImageModel;
+import model.ImageNames;
 
 /**
  * The RGBCombine class represents a command to combine multiple images into an RGB image. It
@@ -14,11 +15,11 @@ public class RGBCombine implements Command {
    * Checks the format and validity of the RGB combine command.
    *
    * @param command The input command string.
-   * @param model The ImageModel used for image operations.
+   * @param model The names of the images the command will run on.
    * @return A message indicating the status of the command format.
    */
   @Override
-  public String cmdCheck(String command, ImageModel model) {
+  public String cmdCheck(String command, ImageNames model) {
 
     String[] splitCommands = command.split(" ");
     if (splitCommands.length != 5) {
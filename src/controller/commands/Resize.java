@@ -0,0 +1,75 @@
+package controller.commands;
+
+import controller.Command;
+import java.io.IOException;
+import model.ImageModel;
+import model.ImageNames;
+import model.Resampler;
+
+/**
+ * The Resize class represents a command to resize an image with a box, bilinear or Lanczos
+ * filter. It implements the Command interface for resize operations.
+ */
+public class Resize implements Command {
+
+  /**
+   * Checks the format and validity of the resize command.
+   *
+   * @param command The input command string.
+   * @param model The names of the images the command will run on.
+   * @return A message indicating the status of the command format.
+   */
+  @Override
+  public String cmdCheck(String command, ImageNames model) {
+    String[] splitCommands = command.split(" ");
+    int first = splitCommands.length > 1 && splitCommands[1].startsWith("-") ? 2 : 1;
+    if (splitCommands.length != first + 4) {
+      return "resize command format is not correct \n"
+          + "Format: resize [-box|-bilinear|-lanczos3] width height image-name dest-image-name";
+    }
+    if (first == 2 && Resampler.Filter.of(splitCommands[1].substring(1)) == null) {
+      return "Unknown filter " + splitCommands[1] + ", use -box, -bilinear or -lanczos3";
+    }
+    try {
+      int width = Integer.parseInt(splitCommands[first]);
+      int height = Integer.parseInt(splitCommands[first + 1]);
+      if (width < 0 || height < 0 || width == 0 && height == 0) {
+        return "The width and height should be positive; one of them may be 0 to keep the "
+            + "aspect ratio";
+      } else if ((long) Math.max(width, 1) * Math.max(height, 1) > Resampler.MAX_PIXELS) {
+        return "The resized image may have at most " + Resampler.MAX_PIXELS + " pixels";
+      }
+    } catch (NumberFormatException e) {
+      return "The width and height should be integers";
+    }
+    if (!model.getRefNames().contains(splitCommands[first + 2])) {
+      return "image-name not present";
+    } else if (model.getRefNames().contains(splitCommands[first + 3])) {
+      return "destination image-name already used by another image";
+    }
+    return "Valid Command Format";
+  }
+
+  /**
+   * Executes the resize command.
+   *
+   * @param command The input command string.
+   * @param model The ImageModel used for image operations.
+   * @return A message indicating the successful execution of the command.
+   * @throws IOException If an I/O error occurs during the resize operation.
+   */
+  @Override
+  public String cmdExec(String command, ImageModel model) throws IOException {
+    String[] splitCommands = command.split(" ");
+    int first = splitCommands[1].startsWith("-") ? 2 : 1;
+    try {
+      model.resize(splitCommands[first + 2], splitCommands[first + 3],
+          Integer.parseInt(splitCommands[first]), Integer.parseInt(splitCommands[first + 1]),
+          first == 2 ? splitCommands[1].substring(1) : "lanczos3");
+    } catch (IllegalArgumentException e) {
+      // a width or height of 0 keeps the aspect ratio, so the size is only known here
+      return e.getMessage();
+    }
+    return "Command Executed Successfully";
+  }
+}
@@ -0,0 +1,53 @@
+package controller.commands;
+
+import java.io.IOException;
+
+import controller.Command;
+import model.ImageModel;
+import model.ImageNames;
+
+/**
+ * The Rotate class represents a command for rotating images by a multiple of 90 degrees or
+ * transposing them. The same class serves rotate-90, rotate-180, rotate-270 and transpose; the
+ * first word of the command selects the operation.
+ */
+public class Rotate implements Command {
+
+  /**
+   * Checks the format and validity of the rotate or transpose command.
+   *
+   * @param command The input command string.
+   * @param model   The names of the images the command will run on.
+   * @return A message indicating the status of the command format.
+   */
+  @Override
+  public String cmdCheck(String command, ImageNames model) {
+    String[] splitCommands = command.split(" ");
+    if (splitCommands.length != 3) {
+      return splitCommands[0] + " command format is not correct \n"
+              + "Format: " + splitCommands[0] + " image-name "
+              + "dest-image-name";
+    } else if (!model.getRefNames().contains(splitCommands[1])) {
+      return "image-name not present";
+    } else if (model.getRefNames().contains(splitCommands[2])) {
+      return "destination image-name "
+              + "already used by another image";
+    }
+    return "Valid Command Format";
+  }
+
+  /**
+   * Executes the rotate or transpose command.
+   *
+   * @param command The input command string containing image details.
+   * @param model   The ImageModel used for image operations.
+   * @return A message indicating the successful execution of the command.
+   * @throws IOException If an I/O error occurs during the rotation.
+   */
+  @Override
+  public String cmdExec(String command, ImageModel model) throws IOException {
+    String[] splitCommands = command.split(" ");
+    model.rotating(splitCommands[0], splitCommands[1], splitCommands[2]);
+    return "Command Executed Successfully";
+  }
+}
@@ -1,6 +1,8 @@
 package controller.commands;
 
 import controller.Command;
+import controller.ImageControllerImplementation;
+import controller.ScriptPlan;
 import java.io.FileInputStream;
 import java.io.FileNotFoundException;
 import java.io.IOException;
@@ -8,6 +10,7 @@ import java.io.InputStream;
 import java.io.OutputStream;
 import java.util.Scanner;
 import model.ImageModel;
+import model.ImageNames;
 import view.ImageView;
 
 /**
@@ -36,11 +39,11 @@ public class RunScript implements Command {
    * Checks the format and validity of the run-script command.
    *
    * @param command The input command string.
-   * @param model The ImageModel used for image operations.
+   * @param model The names of the images the command will run on.
    * @return A message indicating the status of the command format.
    */
   @Override
-  public String cmdCheck(String command, ImageModel model) {
+  public String cmdCheck(String command, ImageNames model) {
     String[] splitCommands = command.split(" ");
     int dot = splitCommands[1].lastIndexOf('.');
     String format = splitCommands[1].substring(dot + 1);
@@ -53,11 +56,12 @@ public class RunScript implements Command {
   }
 
   /**
-   * Executes the run-script command, reading commands from a script file and running them.
+   * Executes the run-script command. The whole script is compiled and checked first; if any line
+   * is invalid, every error is reported and no command of the script is run.
    *
    * @param command The input command string containing the script file path.
    * @param model The ImageModel used for image operations.
-   * @return A message indicating the successful execution of the command.
+   * @return A message indicating the successful execution of the command, or the script errors.
    * @throws IOException If an I/O error occurs during the script execution process.
    */
   @Override
@@ -69,7 +73,13 @@ public class RunScript implements Command {
     } catch (FileNotFoundException e) {
       return "File " + splitCommands[1] + " not found!";
     }
-    model.runScript(scanner, model, this.in, this.out, this.view);
+    ScriptPlan plan = new ImageControllerImplementation(model, this.in, this.out, this.view)
+        .compile(scanner, model.getRefNames());
+    if (!plan.getErrors().isEmpty()) {
+      return String.join("\n", plan.getErrors())
+          + "\nScript not run: " + plan.getErrors().size() + " error(s)";
+    }
+    plan.run(model, this.view, this.out);
     return "Command Executed Successfully";
   }
 }
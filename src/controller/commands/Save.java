@@ -2,12 +2,13 @@ package controller.commands;
 
 import controller.Command;
 import java.awt.image.BufferedImage;
-import java.io.File;
 import java.io.FileNotFoundException;
 import java.io.FileOutputStream;
 import java.io.IOException;
 import javax.imageio.ImageIO;
 import model.ImageModel;
+import model.ImageNames;
+import model.events.ImageSaveEvent;
 
 /**
  * The {@code Save} class represents a command to save an image to a specified file path. It
@@ -19,11 +20,11 @@ public class Save implements Command {
    * Checks the format and validity of the save command.
    *
    * @param command The input command string containing image path and name.
-   * @param model The ImageModel used for image operations.
+   * @param model The names of the images the command will run on.
    * @return A message indicating the status of the command format.
    */
   @Override
-  public String cmdCheck(String command, ImageModel model) {
+  public String cmdCheck(String command, ImageNames model) {
     String[] splitCommands = command.split(" ");
     int dot = splitCommands[1].lastIndexOf('.');
     String format = splitCommands[1].substring(dot + 1);
@@ -33,7 +34,8 @@ public class Save implements Command {
         || format.equals("png")
         || format.equals("ppm")
         || format.equals("jpg")
-        || format.equals("bmp"))) {
+        || format.equals("bmp")
+        || format.equals("wvl"))) {
       return "Incorrect File Extension";
     } else if (!model.getRefNames().contains(splitCommands[2])) {
       return "image-name not present";
@@ -51,28 +53,68 @@ public class Save implements Command {
    */
   @Override
   public String cmdExec(String command, ImageModel model) throws IOException {
+    return prepare(command, model).call();
+  }
+
+  /**
+   * Takes what the save command writes from the model, leaving the writing itself for later. The
+   * returned write no longer depends on the model, so it can run on another thread while the
+   * model goes on with the next commands.
+   *
+   * @param command The input command string containing image path and name.
+   * @param model The ImageModel used for image operations.
+   * @return The write of the file, returning the message of the command.
+   * @throws IOException If an I/O error occurs while encoding the image.
+   */
+  public PendingWrite prepare(String command, ImageModel model) throws IOException {
     String[] splitCommands = command.split(" ");
-    int dot = splitCommands[1].lastIndexOf('.');
-    String format = splitCommands[1].substring(dot + 1);
+    ImageSaveEvent event = new ImageSaveEvent();
+    event.begin();
+    String path = splitCommands[1];
+    int dot = path.lastIndexOf('.');
+    String format = path.substring(dot + 1);
+    int[] size = model.getImageSize(splitCommands[2]);
+    byte[] encoded = null;
+    BufferedImage image = null;
     if (format.equals("ppm")) {
-      try {
-        StringBuilder ppmFormat = model.saveImage(splitCommands[1], splitCommands[2]);
-        FileOutputStream fos = new FileOutputStream(splitCommands[1]);
-        fos.write(new String(ppmFormat).getBytes());
-        fos.close();
-      } catch (FileNotFoundException e) {
-        return "Incorrect File Path";
-      }
+      encoded = new String(model.saveImage(path, splitCommands[2])).getBytes();
+    } else if (format.equals("wvl")) {
+      encoded = model.saveWavelet(splitCommands[2]);
     } else {
-      BufferedImage image = model.saveImage1(splitCommands[1], splitCommands[2]);
-      try {
-        File output = new File(splitCommands[1]);
-        FileOutputStream fos = new FileOutputStream(splitCommands[1]);
-        ImageIO.write(image, format.toUpperCase(), output);
+      image = model.saveImage1(path, splitCommands[2]);
+    }
+    byte[] bytes = encoded;
+    BufferedImage pixels = image;
+    return () -> {
+      try (FileOutputStream fos = new FileOutputStream(path)) {
+        if (bytes != null) {
+          fos.write(bytes);
+        } else {
+          ImageIO.write(pixels, format.toUpperCase(), fos);
+        }
       } catch (FileNotFoundException e) {
         return "Incorrect File Path";
       }
-    }
-    return "Command Executed Successfully";
+      if (event.shouldCommit() && size != null) {
+        event.path = path;
+        event.setImage(splitCommands[2], size[0], size[1]);
+        event.commit();
+      }
+      return "Command Executed Successfully";
+    };
+  }
+
+  /**
+   * The writing of a file prepared by {@link #prepare}.
+   */
+  public interface PendingWrite {
+
+    /**
+     * Writes the file.
+     *
+     * @return A message indicating the successful execution of the command.
+     * @throws IOException If an I/O error occurs while writing the file.
+     */
+    String call() throws IOException;
   }
 }
@@ -0,0 +1,53 @@
+package controller.commands;
+
+import controller.Command;
+import controller.CommandMetrics;
+import controller.ResultStore;
+import java.io.IOException;
+import model.DecodeCache;
+import model.ImageModel;
+import model.ImageNames;
+
+/**
+ * The Stats class represents a command that reports the time, CPU and allocation metrics recorded
+ * for the commands executed so far, and the use of the decode and result caches. It implements
+ * the Command interface.
+ */
+public class Stats implements Command {
+
+  /**
+   * Checks the format and validity of the stats command.
+   *
+   * @param command The input command string.
+   * @param model The names of the images the command will run on.
+   * @return A message indicating the status of the command format.
+   */
+  @Override
+  public String cmdCheck(String command, ImageNames model) {
+    String[] splitCommands = command.split(" ");
+    if (splitCommands.length > 2
+        || (splitCommands.length == 2 && !splitCommands[1].equals("reset"))) {
+      return "stats command format is not correct \n" + "Format: stats [reset]";
+    }
+    return "Valid Command Format";
+  }
+
+  /**
+   * Executes the stats command, reporting or clearing the recorded command metrics.
+   *
+   * @param command The input command string.
+   * @param model The ImageModel used for image operations.
+   * @return The metrics report, or a message confirming that the metrics were cleared.
+   * @throws IOException If an I/O error occurs during command execution.
+   */
+  @Override
+  public String cmdExec(String command, ImageModel model) throws IOException {
+    CommandMetrics metrics = CommandMetrics.getInstance();
+    if (command.split(" ").length == 2) {
+      metrics.reset();
+      return "Command Executed Successfully";
+    }
+    return metrics.getReport() + "\n" + DecodeCache.getInstance().report() + "\n"
+        + ResultStore.getInstance().report();
+  }
+}
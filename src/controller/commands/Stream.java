@@ -0,0 +1,140 @@
+package controller.commands;
+
+import controller.Command;
+import java.io.File;
+import java.io.IOException;
+import model.ImageModel;
+import model.ImageNames;
+import model.StripStream;
+
+/**
+ * The Stream class represents a command that applies one operation to an image file and writes
+ * the result to a PPM file strip by strip, without loading the image into the model. It supports
+ * brighten, greyscale, sepia, levels-adjust, blur and sharpen.
+ */
+public class Stream implements Command {
+
+  private static final String FORMAT = "stream command format is not correct \n"
+      + "Format: stream operation [arguments] image-path dest-ppm-path, where operation is "
+      + "brighten increment, greyscale [component-name], sepia, levels-adjust b m w, blur "
+      + "or sharpen";
+
+  /**
+   * Checks the format and validity of the stream command.
+   *
+   * @param command The input command string.
+   * @param model The names of the images the command will run on.
+   * @return A message indicating the status of the command format.
+   */
+  @Override
+  public String cmdCheck(String command, ImageNames model) {
+    String[] splitCommands = command.split(" ");
+    if (splitCommands.length < 4) {
+      return FORMAT;
+    }
+    int arguments = splitCommands.length - 4;
+    switch (splitCommands[1]) {
+      case "brighten":
+        if (arguments != 1) {
+          return FORMAT;
+        }
+        try {
+          Integer.parseInt(splitCommands[2]);
+        } catch (NumberFormatException e) {
+          return "The brighten increment should be a number";
+        }
+        break;
+      case "greyscale":
+        if (arguments > 1) {
+          return FORMAT;
+        } else if (arguments == 1
+            && model.check(splitCommands[2]).equals("Unrecognized Component")) {
+          return "Unrecognized Component";
+        }
+        break;
+      case "sepia":
+      case "blur":
+      case "sharpen":
+        if (arguments != 0) {
+          return FORMAT;
+        }
+        break;
+      case "levels-adjust":
+        if (arguments != 3) {
+          return FORMAT;
+        }
+        try {
+          int b = Integer.parseInt(splitCommands[2]);
+          int m = Integer.parseInt(splitCommands[3]);
+          int w = Integer.parseInt(splitCommands[4]);
+          if (b < 0 || b > 255 || m < 0 || m > 255 || w < 0 || w > 255) {
+            return "b, m, or w values out of bound. They should be between 0 and 255.";
+          } else if (!(b < m && m < w)) {
+            return "Invalid order of values. Ensure b < m < w.";
+          }
+        } catch (NumberFormatException e) {
+          return "b, m, and w must be integers";
+        }
+        break;
+      default:
+        return "Operation " + splitCommands[1] + " cannot be streamed";
+    }
+    String input = splitCommands[splitCommands.length - 2];
+    String format = input.substring(input.lastIndexOf('.') + 1);
+    if (!(format.equals("ppm")
+        || format.equals("png")
+        || format.equals("jpg")
+        || format.equals("jpeg")
+        || format.equals("bmp"))) {
+      return "Incorrect File Extension";
+    } else if (!splitCommands[splitCommands.length - 1].endsWith(".ppm")) {
+      return "stream writes ppm files only";
+    }
+    return "Valid Command Format";
+  }
+
+  /**
+   * Executes the stream command.
+   *
+   * @param command The input command string.
+   * @param model The ImageModel used for image operations.
+   * @return A message indicating the result of the command.
+   * @throws IOException If an I/O error occurs while reading or writing the files.
+   */
+  @Override
+  public String cmdExec(String command, ImageModel model) throws IOException {
+    String[] splitCommands = command.split(" ");
+    String input = splitCommands[splitCommands.length - 2];
+    File file = new File(input);
+    if (!file.isFile()) {
+      return "File " + input + " not found!";
+    }
+    StripStream stream;
+    switch (splitCommands[1]) {
+      case "brighten":
+        stream = StripStream.brighten(Integer.parseInt(splitCommands[2]));
+        break;
+      case "greyscale":
+        stream = StripStream.greyscale(
+            splitCommands.length == 5 ? model.check(splitCommands[2]) : "Luma");
+        break;
+      case "sepia":
+        stream = StripStream.sepia();
+        break;
+      case "levels-adjust":
+        stream = StripStream.levels(Integer.parseInt(splitCommands[2]),
+            Integer.parseInt(splitCommands[3]), Integer.parseInt(splitCommands[4]));
+        break;
+      case "blur":
+        stream = StripStream.blur();
+        break;
+      default:
+        stream = StripStream.sharpen();
+        break;
+    }
+    if (!stream.run(file, new File(splitCommands[splitCommands.length - 1]))) {
+      return "Invalid image file: " + input + " could not be decoded";
+    }
+    return "Command Executed Successfully";
+  }
+}
@@ -3,6 +3,7 @@ package controller.commands;
 import controller.Command;
 import java.io.IOException;
 import model.ImageModel;
+import model.ImageNames;
 
 /**
  * The VerticalFlip class represents a command to perform a vertical flip on an image. It implements
@@ -14,11 +15,11 @@ public class VerticalFlip implements Command {
    * Checks the format and validity of the vertical flip command.
    *
    * @param command The input command string containing image names for the vertical flip operation.
-   * @param model The ImageModel used for image operations.
+   * @param model The names of the images the command will run on.
    * @return A message indicating the status of the command format.
    */
   @Override
-  public String cmdCheck(String command, ImageModel model) {
+  public String cmdCheck(String command, ImageNames model) {
     String[] splitCommands = command.split(" ");
     if (splitCommands.length != 3) {
       return "vertical-flip command format is not correct \n"
@@ -1,56 +1,95 @@
 package model;
 
+import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Arrays;
-import java.util.Collections;
 import java.util.List;
-import java.util.Objects;
+import java.util.function.DoublePredicate;
+import java.util.stream.IntStream;
+import model.events.CompressionPhaseEvent;
 
 /**
- * Compression utility functions.
+ * Compression utility functions. Channels are compressed with the single-precision, in-place
+ * {@link HaarTransform}; the double-precision static transforms are kept as its reference.
  */
 public class CompressionHelper {
   private final int rows;
   private final int columns;
-  private final ArrayList<double[][]> changedImg = new ArrayList<>();
+  private final List<float[]> planes = new ArrayList<>();
+  private final HaarTransform transform;
+  private final String imageName;
   private double threeshold;
+  private double[] magnitudes;
 
   /**
    * This is a constructor of ImageCompressionFunction class.
    */
   public CompressionHelper(int rows, int columns) {
+    this(rows, columns, null);
+  }
+
+  /**
+   * Constructs a CompressionHelper whose flight recorder events name the compressed image.
+   *
+   * @param rows      The number of rows of the image.
+   * @param columns   The number of columns of the image.
+   * @param imageName The reference name of the image being compressed.
+   */
+  public CompressionHelper(int rows, int columns, String imageName) {
     this.rows = rows;
     this.columns = columns;
+    this.imageName = imageName;
+    this.transform = new HaarTransform(rows, columns);
+  }
+
+  private static CompressionPhaseEvent beginPhase() {
+    CompressionPhaseEvent event = new CompressionPhaseEvent();
+    event.begin();
+    return event;
+  }
+
+  private void endPhase(CompressionPhaseEvent event, String phase, int channel) {
+    if (event.shouldCommit()) {
+      event.phase = phase;
+      event.channel = channel;
+      event.setImage(imageName, columns, rows);
+      event.commit();
+    }
   }
 
   /**
-   * This method is used to transform a 1D array by parsing it by length.
+   * This method is used to transform a 1D array by parsing it by length. Pairs of values become
+   * their scaled average and difference. For an odd length the last value is paired with itself,
+   * so its average is kept and its zero difference is dropped; the result then has one more
+   * average than differences and is as long as the input.
    */
   public static double[] har1DTransformation(double[] sArray) {
-    double[] arr = Arrays.copyOf(sArray, sArray.length);
-    for (int k = 0; k < sArray.length; k += 2) {
+    int half = (sArray.length + 1) / 2;
+    double[] arr = new double[sArray.length];
+    for (int k = 0; k + 1 < sArray.length; k += 2) {
       double x = (sArray[k] + sArray[k + 1]) / Math.sqrt(2);
       double y = (sArray[k] - sArray[k + 1]) / Math.sqrt(2);
       arr[k / 2] = x;
-      arr[k / 2 + sArray.length / 2] = y;
+      arr[k / 2 + half] = y;
+    }
+    if (sArray.length % 2 == 1) {
+      arr[half - 1] = sArray[sArray.length - 1] * Math.sqrt(2);
     }
     return arr;
   }
 
   /**
-   * This method is used to perform a haar transform on the rows of the array.
+   * This method is used to perform a haar transform on the rows of the array. Each level
+   * transforms the averages of the previous one, so an array of any length is transformed
+   * without padding it to a power of two.
    */
   public static double[] transformed(double[] sArray) {
     int n = sArray.length;
     double[] har1DTransformedArray = Arrays.copyOf(sArray, sArray.length);
     while (n > 1) {
       double[] sLeft = har1DTransformation(Arrays.copyOfRange(har1DTransformedArray, 0, n));
-      double[] sRight = Arrays.copyOfRange(har1DTransformedArray,
-              n, har1DTransformedArray.length);
       System.arraycopy(sLeft, 0, har1DTransformedArray, 0, sLeft.length);
-      System.arraycopy(sRight, 0, har1DTransformedArray,
-              sLeft.length, sRight.length);
-      n = n / 2;
+      n = (n + 1) / 2;
     }
     return har1DTransformedArray;
   }
@@ -59,54 +98,217 @@ public class CompressionHelper {
    * This method is used to perform an inverse of the haar transform on the rows of the array.
    */
   public static double[] inverseHar1dRowTransformation(double[] sArray) {
-    int n = 1;
+    List<Integer> lengths = new ArrayList<>();
+    for (int n = sArray.length; n > 1; n = (n + 1) / 2) {
+      lengths.add(n);
+    }
     double[] har1DInverseTransformedArray = Arrays.copyOf(sArray, sArray.length);
-    while (n < sArray.length) {
-      double[] leftArray = Arrays.copyOfRange(har1DInverseTransformedArray, 0, n);
-      double[] secondHalf = Arrays.copyOfRange(har1DInverseTransformedArray, n, 2 * n);
+    for (int level = lengths.size() - 1; level >= 0; level--) {
+      int n = lengths.get(level);
+      int half = (n + 1) / 2;
+      double[] leftArray = Arrays.copyOfRange(har1DInverseTransformedArray, 0, half);
+      double[] secondHalf = Arrays.copyOfRange(har1DInverseTransformedArray, half, n);
 
-      for (int k = 0; k < n; k++) {
+      for (int k = 0; k < n / 2; k++) {
         double aArray = leftArray[k];
         double dArray = secondHalf[k];
         har1DInverseTransformedArray[k * 2] = (aArray + dArray) / Math.sqrt(2);
         har1DInverseTransformedArray[k * 2 + 1] = (aArray - dArray) / Math.sqrt(2);
       }
-      n *= 2;
+      if (n % 2 == 1) {
+        har1DInverseTransformedArray[n - 1] = leftArray[half - 1] / Math.sqrt(2);
+      }
     }
     return har1DInverseTransformedArray;
   }
 
 
   void retrieveThresholdValue(double thresholdPercentage) {
-    ArrayList<Double> threshVal = new ArrayList<>();
-    for (double[][] transformedImage : changedImg) {
-      for (int k = 0; k < transformedImage.length; k++) {
-        for (int l = 0; l < transformedImage[k].length; l++) {
-          if (!precisionCheck(threshVal, Math.abs(transformedImage[k][l]))
-                  && Math.abs(transformedImage[k][l]) >= 0.001) {
-            threshVal.add(Math.abs(transformedImage[k][l]));
-          }
+    CompressionPhaseEvent event = beginPhase();
+    threeshold = thresholdAt(magnitudeIndex(), thresholdPercentage);
+    endPhase(event, "threshold-select", -1);
+  }
+
+  /**
+   * Picks the threshold that sets the given percentage of the distinct magnitudes to 0.
+   *
+   * @param threshVal           The sorted distinct magnitudes.
+   * @param thresholdPercentage The percentage of magnitudes to drop.
+   * @return the threshold, or 0 if there are no magnitudes.
+   */
+  static double thresholdAt(double[] threshVal, double thresholdPercentage) {
+    if (threshVal.length == 0) {
+      return 0;
+    }
+    int thresholdIndex = thresholdPercentage == 100.0 ? threshVal.length - 1 :
+            (int) ((thresholdPercentage / 100) * (threshVal.length));
+    return threshVal[Math.min(thresholdIndex, threshVal.length - 1)];
+  }
+
+  /**
+   * Selects the largest threshold whose decompressed image still reaches the given peak
+   * signal-to-noise ratio. The forward transform is reused for every candidate; each step of the
+   * binary search only thresholds a copy of the coefficients and inverts it.
+   *
+   * @param originalImage The image before compression.
+   * @param targetPsnr    The lowest acceptable PSNR in decibels.
+   */
+  void selectThresholdForPsnr(Pixel originalImage, double targetPsnr) {
+    CompressionPhaseEvent event = beginPhase();
+    float[][] originals = new float[planes.size()][];
+    float[][] work = new float[planes.size()][];
+    for (int channel = 0; channel < planes.size(); channel++) {
+      originals[channel] = channelPlane(originalImage, channel);
+      work[channel] = new float[rows * columns];
+    }
+    threeshold = searchThreshold(threshold -> {
+      quantizedCopy(threshold, WaveletCoefficients.DEFAULT_STEP, work);
+      return psnr(work, originals) >= targetPsnr;
+    }, false);
+    endPhase(event, "threshold-select", -1);
+  }
+
+  /**
+   * Selects the smallest threshold whose coefficients fit in the given number of bytes once
+   * saved in the wavelet format. The forward transform is reused for every candidate; each step
+   * of the binary search only thresholds and encodes a copy of the coefficients.
+   *
+   * @param targetBytes The largest acceptable size of the wavelet file.
+   */
+  void selectThresholdForSize(long targetBytes) {
+    CompressionPhaseEvent event = beginPhase();
+    float[][] work = new float[planes.size()][rows * columns];
+    double[] index = magnitudeIndex();
+    double largest = index.length == 0 ? 0 : index[index.length - 1];
+    threeshold = searchThreshold(threshold -> {
+      WaveletCoefficients candidate =
+          quantizedCopy(threshold, WaveletCoefficients.DEFAULT_STEP, work);
+      try {
+        return WaveletCodec.encode(candidate).length <= targetBytes || threshold >= largest;
+      } catch (IOException e) {
+        return false;
+      }
+    }, true);
+    endPhase(event, "threshold-select", -1);
+  }
+
+  /**
+   * Binary-searches the candidate thresholds: 0, which keeps every coefficient, followed by the
+   * distinct coefficient magnitudes in increasing order.
+   *
+   * @param acceptable Whether a threshold meets the target.
+   * @param smallest   true to find the smallest acceptable threshold when the target is met by
+   *                   large thresholds, false to find the largest one when it is met by small
+   *                   thresholds.
+   * @return the selected threshold.
+   */
+  private double searchThreshold(DoublePredicate acceptable, boolean smallest) {
+    double[] index = magnitudeIndex();
+    int low = -1;
+    int high = index.length - 1;
+    while (low < high) {
+      int middle = smallest ? low + (high - low) / 2 : low + (high - low + 1) / 2;
+      boolean accepted = acceptable.test(middle < 0 ? 0 : index[middle]);
+      if (smallest) {
+        if (accepted) {
+          high = middle;
+        } else {
+          low = middle + 1;
+        }
+      } else {
+        if (accepted) {
+          low = middle;
+        } else {
+          high = middle - 1;
         }
       }
     }
-    Collections.sort(threshVal);
-    int thresholdIndex = thresholdPercentage == 100.0 ? threshVal.size() - 1 :
-            (int) ((thresholdPercentage / 100) * (threshVal.size()));
-    threeshold = threshVal.get(thresholdIndex);
+    return low < 0 ? 0 : index[low];
+  }
+
+  /**
+   * Thresholds and quantizes a copy of the coefficients, leaving the transformed channels as
+   * they are.
+   *
+   * @param threshold The largest magnitude that is set to 0.
+   * @param step      The quantization step.
+   * @param work      One array per channel receiving the dequantized coefficients.
+   * @return the quantized coefficients.
+   */
+  private WaveletCoefficients quantizedCopy(double threshold, float step, float[][] work) {
+    int[][] channels = new int[planes.size()][];
+    for (int channel = 0; channel < planes.size(); channel++) {
+      float[] plane = planes.get(channel);
+      float[] copy = work[channel];
+      int[] quantized = new int[plane.length];
+      for (int k = 0; k < plane.length; k++) {
+        quantized[k] = Math.abs(plane[k]) <= threshold ? 0 : Math.round(plane[k] / step);
+        copy[k] = quantized[k] * step;
+      }
+      channels[channel] = quantized;
+    }
+    return new WaveletCoefficients(rows, columns, step, channels);
   }
 
   /**
-   * This method checks the precision of the values.
+   * Inverts thresholded coefficients in place and measures how close they come to the original.
+   *
+   * @param work      The thresholded coefficients of every channel.
+   * @param originals The original values of every channel.
+   * @return the peak signal-to-noise ratio in decibels.
    */
-  private boolean precisionCheck(List<Double> list, double value) {
-    for (double item : list) {
-      if (Math.abs(item - value) < 0.0000001) {
-        return true;
+  private double psnr(float[][] work, float[][] originals) {
+    double error = 0;
+    for (int channel = 0; channel < work.length; channel++) {
+      transform.inverse(work[channel]);
+      for (int k = 0; k < work[channel].length; k++) {
+        double difference = clamp(work[channel][k]) - originals[channel][k];
+        error += difference * difference;
       }
     }
-    return false;
+    double meanSquare = error / ((double) work.length * rows * columns);
+    return meanSquare == 0 ? Double.POSITIVE_INFINITY : 10 * Math.log10(255.0 * 255.0 / meanSquare);
   }
 
+  private double[] magnitudeIndex() {
+    if (magnitudes == null) {
+      magnitudes = distinctMagnitudes(planes);
+    }
+    return magnitudes;
+  }
+
+  /**
+   * Lists the distinct coefficient magnitudes of the given channels in increasing order.
+   * Magnitudes below 0.001 are left out, and magnitudes closer than 1e-7 to the previous one
+   * count as the same. The list is built by sorting, so it costs O(n log n) for n coefficients.
+   *
+   * @param planes The transformed channels.
+   * @return the sorted distinct magnitudes.
+   */
+  static double[] distinctMagnitudes(List<float[]> planes) {
+    int total = 0;
+    for (float[] plane : planes) {
+      total += plane.length;
+    }
+    double[] all = new double[total];
+    int count = 0;
+    for (float[] plane : planes) {
+      for (float value : plane) {
+        double magnitude = Math.abs(value);
+        if (magnitude >= 0.001) {
+          all[count++] = magnitude;
+        }
+      }
+    }
+    Arrays.sort(all, 0, count);
+    int distinct = 0;
+    for (int k = 0; k < count; k++) {
+      if (distinct == 0 || all[k] - all[distinct - 1] >= 0.0000001) {
+        all[distinct++] = all[k];
+      }
+    }
+    return Arrays.copyOf(all, distinct);
+  }
 
   /**
    * Send har 2D transformed image.
@@ -166,155 +368,131 @@ public class CompressionHelper {
    * Sets image pixel values to 0 if they fall below the threshold after transformation.
    */
   void afterThresh() {
-    for (double[][] trnsfrmImg : changedImg) {
-      for (int k = 0; k < trnsfrmImg.length; k++) {
-        for (int l = 0; l < trnsfrmImg[k].length; l++) {
-          if (Math.abs(trnsfrmImg[k][l]) <= threeshold) {
-            trnsfrmImg[k][l] = 0.0;
-          }
+    CompressionPhaseEvent event = beginPhase();
+    planes.parallelStream().forEach(plane -> {
+      for (int k = 0; k < plane.length; k++) {
+        if (Math.abs(plane[k]) <= threeshold) {
+          plane[k] = 0.0f;
         }
       }
-    }
+    });
+    endPhase(event, "threshold", -1);
   }
 
   /**
-   * Double array to RGB.
+   * Rounds the coefficients of every channel to multiples of the quantization step, so the image
+   * rebuilt from them is exactly the one decoded from the saved coefficients.
    *
-   * @param doubleArr double array.
-   * @param chan      channel R/G/B.
-   * @return RGB pixels.
+   * @param step The quantization step.
+   * @return the quantized coefficients.
    */
-  public Pixel convertDoubleArrayToRGB(double[][] doubleArr, String chan) {
-    List<Integer> rgb = null;
-    int width = doubleArr.length;
-    int height = doubleArr[0].length;
-    List<Integer>[][] img = new List[width][height];
-
-    for (int k = 0; k < width; k++) {
-      for (int l = 0; l < height; l++) {
-        List<Integer> addd = new ArrayList<>();
-
-        if (Objects.equals(chan, "red")) {
-          addd = Arrays.asList((int) Math.round(doubleArr[k][l]), 0, 0);
-        } else if (Objects.equals(chan, "green")) {
-          addd = Arrays.asList(0, (int) Math.round(doubleArr[k][l]), 0);
-        } else if (Objects.equals(chan, "blue")) {
-          addd = Arrays.asList(0, 0, (int) Math.round(doubleArr[k][l]));
-        }
-        img[k][l] = addd;
+  WaveletCoefficients quantize(float step) {
+    int[][] channels = new int[planes.size()][];
+    IntStream.range(0, planes.size()).parallel().forEach(channel -> {
+      float[] plane = planes.get(channel);
+      int[] quantized = new int[plane.length];
+      for (int k = 0; k < plane.length; k++) {
+        quantized[k] = Math.round(plane[k] / step);
+        plane[k] = quantized[k] * step;
       }
-    }
-    return new PixelImplementation(img);
+      channels[channel] = quantized;
+    });
+    return new WaveletCoefficients(rows, columns, step, channels);
   }
 
   /**
-   * Unpad the inverse.
+   * Inverts the transform of every channel in place and writes the result into the given buffer.
    *
-   * @return returns array of RGB.
+   * @param buffer A buffer of the size of the image, whose entries are all overwritten.
+   * @return the decompressed image.
    */
-  ArrayList<Pixel> unpadInverse() {
-    ArrayList<Pixel> imgInverseUnpad = new ArrayList<>();
-    ArrayList<double[][]> doubArrInvUnpassed = new ArrayList<>();
-    for (double[][] transformedImage : changedImg) {
-      double[][] invImg = inversehar2dTransformation(transformedImage);
-      double[][] unpadImg = getUnpaddedImage(invImg, rows, columns);
-      doubArrInvUnpassed.add(unpadImg);
-    }
-    imgInverseUnpad.add(convertDoubleArrayToRGB(doubArrInvUnpassed.get(0),
-            "red"));
-    imgInverseUnpad.add(convertDoubleArrayToRGB(doubArrInvUnpassed.get(1),
-            "green"));
-    imgInverseUnpad.add(convertDoubleArrayToRGB(doubArrInvUnpassed.get(2),
-            "blue"));
-    return imgInverseUnpad;
+  PixelImplementation inverseTransform(List<Integer>[][] buffer) {
+    IntStream.range(0, planes.size()).parallel().forEach(channel -> {
+      CompressionPhaseEvent inverse = beginPhase();
+      transform.inverse(planes.get(channel));
+      endPhase(inverse, "inverse", channel);
+    });
+    return toPixel(planes.toArray(new float[0][]), rows, columns, buffer);
   }
 
-
   /**
-   * Extracts unpadded image from the given padded image.
+   * Writes red, green and blue channel values, rounded and clamped to the 0-255 range, into the
+   * given buffer.
    *
-   * @param ogImg  the padded image as a 2D array
-   * @param ogRows the number of rows in original unpadded image
-   * @param ogCols the number of columns in original unpadded image
-   * @return a 2D array containing the unpadded image of original dimensions
-   *          extracted from the center of the padded image
+   * @param planes  The values of the three channels, row by row.
+   * @param rows    The number of rows of the image.
+   * @param columns The number of columns of the image.
+   * @param buffer  A buffer of the size of the image, whose entries are all overwritten.
+   * @return the image.
    */
-  public double[][] getUnpaddedImage(double[][] ogImg,
-                                     int ogRows, int ogCols) {
-    double[][] unpaddedImg = new double[ogRows][ogCols];
-    int rows = ogImg.length;
-    int columns = ogImg[0].length;
-
-    for (int k = 0; k < ogRows; k++) {
-      for (int l = 0; l < ogCols; l++) {
-        if (k < rows && l < columns) {
-          unpaddedImg[k][l] = ogImg[k][l];
-        }
+  static PixelImplementation toPixel(
+      float[][] planes, int rows, int columns, List<Integer>[][] buffer) {
+    float[] red = planes[0];
+    float[] green = planes[1];
+    float[] blue = planes[2];
+    IntStream.range(0, rows).parallel().forEach(i -> {
+      for (int j = 0; j < columns; j++) {
+        int k = i * columns + j;
+        buffer[i][j] = Arrays.asList(clamp(red[k]), clamp(green[k]), clamp(blue[k]));
       }
-    }
-    return unpaddedImg;
+    });
+    return new PixelImplementation(buffer);
   }
 
+  static int clamp(float value) {
+    return Math.max(0, Math.min(255, Math.round(value)));
+  }
 
   /**
-   * Compress the image using threshold.
+   * Transforms one channel of the image in place and keeps it for thresholding. The image is
+   * transformed at its own size; rows and columns of odd length are handled by the transform
+   * instead of padding the image to a square power of two.
    *
    * @param originalImage RGB Pixels.
+   * @param channel       The channel to transform, 0 for red, 1 for green and 2 for blue.
    */
-
-  public void compThreshold(Pixel originalImage) {
-    double[][] doubleArrayedImg = rgbToDoubleArr(originalImage);
-    double[][] paddedImg = getPaddedImage(doubleArrayedImg);
-    double[][] tranformedImg = har2DTransformation(paddedImg);
-    changedImg.add(tranformedImg);
+  public void compThreshold(Pixel originalImage, int channel) {
+    planes.add(forwardChannel(originalImage, channel));
   }
 
   /**
-   * Padding the image using zeros.
+   * Transforms the red, green and blue channels of the image in parallel and keeps them for
+   * thresholding.
    *
-   * @param originalImage original Image to be paded.
-   * @return return double array.
+   * @param originalImage RGB Pixels.
    */
+  public void compThreshold(Pixel originalImage) {
+    float[][] transformed = new float[3][];
+    IntStream.range(0, 3).parallel()
+        .forEach(channel -> transformed[channel] = forwardChannel(originalImage, channel));
+    planes.addAll(Arrays.asList(transformed));
+  }
 
-  public double[][] getPaddedImage(double[][] originalImage) {
-    int width = originalImage.length;
-    int height = originalImage[0].length;
-    int dim = Math.max(width, height);
-    int dimToPad = 1;
-    while (dimToPad < dim) {
-      dimToPad *= 2;
-    }
-    double[][] paddedImg = new double[dimToPad][dimToPad];
-
-    for (int k = 0; k < dimToPad; k++) {
-      for (int l = 0; l < dimToPad; l++) {
-        if (k < width && l < height) {
-          paddedImg[k][l] = originalImage[k][l];
-        } else {
-          paddedImg[k][l] = 0;
-        }
-      }
-    }
-    return paddedImg;
+  private float[] forwardChannel(Pixel originalImage, int channel) {
+    float[] plane = channelPlane(originalImage, channel);
+    CompressionPhaseEvent forward = beginPhase();
+    transform.forward(plane);
+    endPhase(forward, "forward", channel);
+    return plane;
   }
 
   /**
-   * convert RGB To double array.
+   * Copies one channel of an image into a float array, row by row.
    *
-   * @param ogImg source image.
-   * @return double array.
+   * @param ogImg   source image.
+   * @param channel The channel to copy.
+   * @return the channel values.
    */
-
-  public double[][] rgbToDoubleArr(Pixel ogImg) {
-    int rows = ogImg.getPixel()[0].length;
-    int columns = ogImg.getPixel().length;
-    double[][] doubleArred = new double[rows][columns];
-    for (int i = 0; i < rows; i++) {
+  static float[] channelPlane(Pixel ogImg, int channel) {
+    List<Integer>[][] pixels = ogImg.getPixel();
+    int rows = pixels.length;
+    int columns = pixels[0].length;
+    float[] plane = new float[rows * columns];
+    IntStream.range(0, rows).parallel().forEach(i -> {
       for (int j = 0; j < columns; j++) {
-        doubleArred[i][j] = (ogImg.getPixel()[i][j].get(0) +
-                ogImg.getPixel()[i][j].get(1) + ogImg.getPixel()[i][j].get(2));
+        plane[i * columns + j] = pixels[i][j].get(channel);
       }
-    }
-    return doubleArred;
+    });
+    return plane;
   }
-}
\ No newline at end of file
+}
@@ -0,0 +1,130 @@
+package model;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.IntStream;
+
+/**
+ * Compresses an image the way JPEG does: every channel is cut into 8x8 blocks, each block is
+ * transformed with the discrete cosine transform, its coefficients are quantized with the JPEG
+ * luminance table scaled to the requested quality, and the block is transformed back. Blocks are
+ * independent, so rows of blocks are compressed in parallel and each task only holds one block.
+ *
+ * <p>Blocks at the right and bottom edge of an image whose size is not a multiple of 8 are filled
+ * by repeating the last column or row.
+ */
+public class DctCompression {
+
+  private static final int N = 8;
+
+  private static final int[] LUMINANCE = {
+      16, 11, 10, 16, 24, 40, 51, 61,
+      12, 12, 14, 19, 26, 58, 60, 55,
+      14, 13, 16, 24, 40, 57, 69, 56,
+      14, 17, 22, 29, 51, 87, 80, 62,
+      18, 22, 37, 56, 68, 109, 103, 77,
+      24, 35, 55, 64, 81, 104, 113, 92,
+      49, 64, 78, 87, 103, 121, 120, 101,
+      72, 92, 95, 98, 112, 100, 103, 99
+  };
+
+  private static final float[][] COSINES = new float[N][N];
+
+  static {
+    for (int u = 0; u < N; u++) {
+      double scale = u == 0 ? Math.sqrt(1.0 / N) : Math.sqrt(2.0 / N);
+      for (int x = 0; x < N; x++) {
+        COSINES[u][x] = (float) (scale * Math.cos((2 * x + 1) * u * Math.PI / (2 * N)));
+      }
+    }
+  }
+
+  private final float[] quantization = new float[N * N];
+
+  /**
+   * Constructs a DCT compression of the given quality.
+   *
+   * @param quality The JPEG quality from 1, the strongest compression, to 100, the weakest.
+   */
+  public DctCompression(int quality) {
+    int clamped = Math.max(1, Math.min(100, quality));
+    int scale = clamped < 50 ? 5000 / clamped : 200 - 2 * clamped;
+    for (int k = 0; k < N * N; k++) {
+      quantization[k] = Math.max(1, Math.min(255, (LUMINANCE[k] * scale + 50) / 100));
+    }
+  }
+
+  /**
+   * Compresses an image.
+   *
+   * @param source The image to compress.
+   * @param buffer A buffer of the size of the image, whose entries are all overwritten.
+   * @return The compressed image.
+   */
+  public PixelImplementation compress(Pixel source, List<Integer>[][] buffer) {
+    List<Integer>[][] pixels = source.getPixel();
+    int rows = pixels.length;
+    int columns = pixels[0].length;
+    IntStream.range(0, (rows + N - 1) / N).parallel().forEach(blockRow -> {
+      float[][] block = new float[3][N * N];
+      float[] scratch = new float[N * N];
+      for (int left = 0; left < columns; left += N) {
+        int top = blockRow * N;
+        for (int y = 0; y < N; y++) {
+          for (int x = 0; x < N; x++) {
+            List<Integer> pixel =
+                pixels[Math.min(top + y, rows - 1)][Math.min(left + x, columns - 1)];
+            for (int c = 0; c < 3; c++) {
+              block[c][y * N + x] = pixel.get(c) - 128;
+            }
+          }
+        }
+        for (float[] channel : block) {
+          transform(channel, scratch, false);
+          for (int k = 0; k < N * N; k++) {
+            channel[k] = Math.round(channel[k] / quantization[k]) * quantization[k];
+          }
+          transform(channel, scratch, true);
+        }
+        for (int y = 0; y < N && top + y < rows; y++) {
+          for (int x = 0; x < N && left + x < columns; x++) {
+            int k = y * N + x;
+            buffer[top + y][left + x] = Arrays.asList(
+                CompressionHelper.clamp(block[0][k] + 128),
+                CompressionHelper.clamp(block[1][k] + 128),
+                CompressionHelper.clamp(block[2][k] + 128));
+          }
+        }
+      }
+    });
+    return new PixelImplementation(buffer);
+  }
+
+  /**
+   * Transforms an 8x8 block in place, first along its rows and then along its columns.
+   *
+   * @param block   The 64 values of the block, row by row.
+   * @param scratch A scratch array of 64 values.
+   * @param inverse true for the inverse transform.
+   */
+  private static void transform(float[] block, float[] scratch, boolean inverse) {
+    for (int y = 0; y < N; y++) {
+      for (int u = 0; u < N; u++) {
+        float sum = 0;
+        for (int x = 0; x < N; x++) {
+          sum += block[y * N + x] * (inverse ? COSINES[x][u] : COSINES[u][x]);
+        }
+        scratch[y * N + u] = sum;
+      }
+    }
+    for (int x = 0; x < N; x++) {
+      for (int v = 0; v < N; v++) {
+        float sum = 0;
+        for (int y = 0; y < N; y++) {
+          sum += scratch[y * N + x] * (inverse ? COSINES[y][v] : COSINES[v][y]);
+        }
+        block[v * N + x] = sum;
+      }
+    }
+  }
+}
@@ -0,0 +1,173 @@
+package model;
+
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Scanner;
+import java.util.WeakHashMap;
+import javax.imageio.ImageIO;
+
+/**
+ * Keeps the decoded pixels of recently loaded files, so loading the same file again hands out
+ * the same image instead of decoding it. A file is identified by its absolute path, length and
+ * modification time, so a file that changed on disk is decoded again.
+ *
+ * <p>The cached images are shared by every name they are loaded under. Operations never write
+ * into their source buffers, so sharing is safe as long as a cached buffer is never recycled; the
+ * model asks {@link #holds} before it releases a buffer to its pool. Images are dropped in
+ * least-recently-used order once their estimated size exceeds the memory cap, but their buffers
+ * stay marked until they are garbage collected, since models that loaded them may still use them.
+ *
+ * <p>One cache is shared by every model of the application, so the buffers it holds are safe from
+ * the pools of all of them.
+ */
+public class DecodeCache {
+
+  /** The default memory cap in bytes. */
+  public static final long DEFAULT_MAX_BYTES = 256L * 1024 * 1024;
+
+  /** The estimated heap size of one decoded pixel: its list and three boxed channel values. */
+  private static final long BYTES_PER_PIXEL = 128;
+
+  private static DecodeCache instance;
+
+  private final long maxBytes;
+  private final Map<String, Pixel> images = new LinkedHashMap<>(16, 0.75f, true);
+  // arrays compare by identity, so this is a weak identity set of every buffer ever cached
+  private final Map<List<Integer>[][], Boolean> buffers = new WeakHashMap<>();
+  private long bytes;
+  private long hits;
+  private long misses;
+
+  /**
+   * Constructs an empty cache.
+   *
+   * @param maxBytes The largest estimated size of the cached images in bytes.
+   */
+  public DecodeCache(long maxBytes) {
+    this.maxBytes = maxBytes;
+  }
+
+  /**
+   * Retrieves the cache shared by the application.
+   *
+   * @return The shared decode cache.
+   */
+  public static synchronized DecodeCache getInstance() {
+    if (instance == null) {
+      instance = new DecodeCache(DEFAULT_MAX_BYTES);
+    }
+    return instance;
+  }
+
+  /**
+   * Retrieves the decoded image of a file, counting a hit or a miss.
+   *
+   * @param file The file.
+   * @return The cached image, or null if the file is not cached in its current version.
+   */
+  public synchronized Pixel get(File file) {
+    Pixel image = images.get(key(file));
+    if (image == null) {
+      misses++;
+    } else {
+      hits++;
+    }
+    return image;
+  }
+
+  /**
+   * Retrieves the decoded image of a file, decoding and caching it if it is not cached in its
+   * current version. The decoding runs without holding the cache, so files can be decoded in the
+   * background while other images are read from the cache.
+   *
+   * @param file The PPM, PNG, JPEG or BMP file.
+   * @param pool The pool to take the buffer of a decoded image from, or null for a new buffer.
+   * @return The image, or null if the file is not a valid image.
+   * @throws IOException If the file cannot be read.
+   */
+  public Pixel load(File file, PixelBufferPool pool) throws IOException {
+    Pixel pixel = get(file);
+    if (pixel != null) {
+      return pixel;
+    }
+    ImageUtil image = new ImageUtil(pool);
+    if (file.getName().endsWith(".ppm")) {
+      try (Scanner scanner = new Scanner(new FileInputStream(file))) {
+        pixel = image.ppmRead(scanner);
+      }
+    } else {
+      BufferedImage input = ImageIO.read(file);
+      pixel = input == null ? null : image.readOtherFormatsFile(input);
+    }
+    if (pixel != null) {
+      put(file, pixel);
+    }
+    return pixel;
+  }
+
+  /**
+   * Caches the decoded image of a file.
+   *
+   * @param file  The file the image was decoded from.
+   * @param image The decoded image.
+   */
+  public synchronized void put(File file, Pixel image) {
+    long size = size(image);
+    if (size > maxBytes) {
+      return;
+    }
+    Pixel previous = images.put(key(file), image);
+    if (previous != null) {
+      forget(previous);
+    }
+    buffers.put(image.getPixel(), Boolean.TRUE);
+    bytes += size;
+    Iterator<Pixel> eldest = images.values().iterator();
+    while (bytes > maxBytes) {
+      Pixel evicted = eldest.next();
+      eldest.remove();
+      forget(evicted);
+    }
+  }
+
+  /**
+   * Checks whether a buffer belongs to an image that was cached, even if it has been dropped
+   * since, and so must not be recycled.
+   *
+   * @param buffer The buffer.
+   * @return true if the buffer was handed out by the cache.
+   */
+  public synchronized boolean holds(List<Integer>[][] buffer) {
+    return buffers.containsKey(buffer);
+  }
+
+  /**
+   * Summarizes the use of the cache.
+   *
+   * @return The hit and miss counts and the size of the cached images.
+   */
+  public synchronized String report() {
+    return "decode cache hits " + hits + ", misses " + misses + ", " + images.size()
+        + " images in about " + bytes / (1024 * 1024) + " MB of " + maxBytes / (1024 * 1024)
+        + " MB";
+  }
+
+  private void forget(Pixel image) {
+    bytes -= size(image);
+  }
+
+  private static long size(Pixel image) {
+    List<Integer>[][] pixels = image.getPixel();
+    return pixels.length * (long) pixels[0].length * BYTES_PER_PIXEL;
+  }
+
+  private static String key(File file) {
+    return file.getAbsolutePath() + " " + file.length() + " " + file.lastModified();
+  }
+}
@@ -0,0 +1,188 @@
+package model;
+
+import java.util.stream.IntStream;
+
+/**
+ * Single-precision Haar wavelet transform of one image channel. The channel is stored row by row
+ * in one float array and transformed in place.
+ *
+ * <p>The transform is the same standard decomposition as
+ * {@link CompressionHelper#har2DTransformation(double[][])}: every row is transformed through all
+ * levels, then every column. Rows and columns of odd length are handled the same way as there.
+ *
+ * <p>Both passes run on the common fork-join pool. The row pass splits the rows into bands, each
+ * with its own scratch line. The column pass splits the columns into narrow strips; a strip is
+ * copied into a contiguous block with a blocked transpose, so that every column becomes a
+ * contiguous line, transformed and copied back. The transform holds no state besides the size of
+ * the channel, so one instance can transform several channels at once.
+ */
+public class HaarTransform {
+
+  private static final float SQRT2 = (float) Math.sqrt(2);
+  private static final float INV_SQRT2 = (float) (1 / Math.sqrt(2));
+  private static final int BAND_ROWS = 64;
+  private static final int STRIP_COLUMNS = 32;
+
+  private final int rows;
+  private final int columns;
+
+  /**
+   * Constructs a transform for channels of the given size.
+   *
+   * @param rows    The number of rows of the channel.
+   * @param columns The number of columns of the channel.
+   */
+  public HaarTransform(int rows, int columns) {
+    this.rows = rows;
+    this.columns = columns;
+  }
+
+  /**
+   * Transforms a channel in place, first along its rows and then along its columns.
+   *
+   * @param plane The channel values, row by row.
+   */
+  public void forward(float[] plane) {
+    rowPass(plane, true);
+    columnPass(plane, true);
+  }
+
+  /**
+   * Inverts the transform of a channel in place, first along its columns and then along its rows.
+   *
+   * @param plane The transformed channel values, row by row.
+   */
+  public void inverse(float[] plane) {
+    columnPass(plane, false);
+    rowPass(plane, false);
+  }
+
+  private void rowPass(float[] plane, boolean forward) {
+    int bands = (rows + BAND_ROWS - 1) / BAND_ROWS;
+    IntStream.range(0, bands).parallel().forEach(band -> {
+      float[] scratch = new float[columns];
+      int end = Math.min(rows, (band + 1) * BAND_ROWS);
+      for (int i = band * BAND_ROWS; i < end; i++) {
+        if (forward) {
+          forward(plane, i * columns, 1, columns, scratch);
+        } else {
+          inverse(plane, i * columns, 1, columns, scratch);
+        }
+      }
+    });
+  }
+
+  private void columnPass(float[] plane, boolean forward) {
+    int strips = (columns + STRIP_COLUMNS - 1) / STRIP_COLUMNS;
+    IntStream.range(0, strips).parallel().forEach(strip -> {
+      int left = strip * STRIP_COLUMNS;
+      int width = Math.min(STRIP_COLUMNS, columns - left);
+      float[] block = new float[width * rows];
+      float[] scratch = new float[rows];
+      for (int i = 0; i < rows; i++) {
+        for (int j = 0; j < width; j++) {
+          block[j * rows + i] = plane[i * columns + left + j];
+        }
+      }
+      for (int j = 0; j < width; j++) {
+        if (forward) {
+          forward(block, j * rows, 1, rows, scratch);
+        } else {
+          inverse(block, j * rows, 1, rows, scratch);
+        }
+      }
+      for (int i = 0; i < rows; i++) {
+        for (int j = 0; j < width; j++) {
+          plane[i * columns + left + j] = block[j * rows + i];
+        }
+      }
+    });
+  }
+
+  /**
+   * Transforms one line of values through all levels. Each level replaces the first n values by
+   * ceil(n/2) averages followed by floor(n/2) differences; the last value of an odd-length level
+   * is paired with itself.
+   *
+   * @param data    The array holding the line.
+   * @param offset  The index of the first value of the line.
+   * @param stride  The distance between two consecutive values of the line.
+   * @param length  The number of values in the line.
+   * @param scratch A scratch array at least as long as the line.
+   */
+  static void forward(float[] data, int offset, int stride, int length, float[] scratch) {
+    for (int n = length; n > 1; n = (n + 1) / 2) {
+      int half = (n + 1) / 2;
+      for (int k = 0; k < n / 2; k++) {
+        float a = data[offset + 2 * k * stride];
+        float b = data[offset + (2 * k + 1) * stride];
+        scratch[k] = (a + b) * INV_SQRT2;
+        scratch[half + k] = (a - b) * INV_SQRT2;
+      }
+      if (n % 2 == 1) {
+        scratch[half - 1] = data[offset + (n - 1) * stride] * SQRT2;
+      }
+      for (int k = 0; k < n; k++) {
+        data[offset + k * stride] = scratch[k];
+      }
+    }
+  }
+
+  /**
+   * Inverts the transform of one line of values, rebuilding the levels from the coarsest one.
+   *
+   * @param data    The array holding the line.
+   * @param offset  The index of the first value of the line.
+   * @param stride  The distance between two consecutive values of the line.
+   * @param length  The number of values in the line.
+   * @param scratch A scratch array at least as long as the line.
+   */
+  static void inverse(float[] data, int offset, int stride, int length, float[] scratch) {
+    int levels = levelCount(length);
+    for (int level = levels - 1; level >= 0; level--) {
+      int n = levelLength(length, level);
+      int half = (n + 1) / 2;
+      for (int k = 0; k < n / 2; k++) {
+        float a = data[offset + k * stride];
+        float d = data[offset + (half + k) * stride];
+        scratch[2 * k] = (a + d) * INV_SQRT2;
+        scratch[2 * k + 1] = (a - d) * INV_SQRT2;
+      }
+      if (n % 2 == 1) {
+        scratch[n - 1] = data[offset + (half - 1) * stride] * INV_SQRT2;
+      }
+      for (int k = 0; k < n; k++) {
+        data[offset + k * stride] = scratch[k];
+      }
+    }
+  }
+
+  /**
+   * Counts the levels a line of the given length is transformed through.
+   *
+   * @param length The number of values in the line.
+   * @return The number of levels.
+   */
+  static int levelCount(int length) {
+    int levels = 0;
+    for (int n = length; n > 1; n = (n + 1) / 2) {
+      levels++;
+    }
+    return levels;
+  }
+
+  /**
+   * Computes the number of values a level of the transform works on.
+   *
+   * @param length The number of values in the line.
+   * @param level  The level, 0 being the finest.
+   * @return The length of the level.
+   */
+  static int levelLength(int length, int level) {
+    int n = length;
+    for (int l = 0; l < level; l++) {
+      n = (n + 1) / 2;
+    }
+    return n;
+  }
+}
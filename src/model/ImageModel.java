@@ -1,12 +1,13 @@
 package model;
 
+import java.awt.Rectangle;
 import java.awt.image.BufferedImage;
+import java.io.File;
 
 import java.io.IOException;
 
 import java.io.InputStream;
 import java.io.OutputStream;
-import java.util.List;
 import java.util.Scanner;
 
 import view.ImageView;
@@ -15,25 +16,10 @@ import view.ImageView;
  * The ImageModel interface defines the contract for manipulating images.
  * It provides various image processing operations.
  */
-public interface ImageModel {
+public interface ImageModel extends ImageNames {
 
   void applyBlur(String imageName);
 
-  /**
-   * Checks if the provided component exists.
-   *
-   * @param component The component to check.
-   * @return A string indicating the status of the component.
-   */
-  String check(String component);
-
-  /**
-   * Retrieves a list of reference names.
-   *
-   * @return The list of reference names.
-   */
-  List<String> getRefNames();
-
   /**
    * Loads an image from the provided Scanner object.
    *
@@ -53,6 +39,46 @@ public interface ImageModel {
    */
   void loadImage(BufferedImage inputImg, String references) throws IOException;
 
+  /**
+   * Loads an image file in the PPM, PNG, JPEG or BMP format. A file that was loaded before and has
+   * not changed since is taken from the shared {@link DecodeCache} instead of being decoded again.
+   *
+   * @param file The image file.
+   * @param referenceName The reference name to associate with the loaded image.
+   * @return True if the image is successfully loaded and stored; false if the file is not a
+   *         valid image.
+   * @throws IOException If an I/O error occurs while reading the file.
+   */
+  boolean loadImage(File file, String referenceName) throws IOException;
+
+  /**
+   * Loads a rectangle of an image file in the PPM, PNG, JPEG or BMP format, optionally keeping
+   * only every n-th pixel of every n-th row, without decoding the rest of the image into pixels.
+   *
+   * @param file The image file.
+   * @param referenceName The reference name to associate with the loaded image.
+   * @param region The rectangle to load, clipped to the image, or null for the whole image.
+   * @param subsample The distance n between kept pixels, 1 to keep every pixel.
+   * @return True if the image is successfully loaded and stored; false if the file is not a
+   *         valid image.
+   * @throws IOException If an I/O error occurs while reading the file.
+   * @throws IllegalArgumentException If the rectangle lies outside the image.
+   */
+  boolean loadImage(File file, String referenceName, Rectangle region, int subsample)
+      throws IOException;
+
+  /**
+   * Loads an image stored in the wavelet format, optionally decoding only its coarse levels.
+   *
+   * @param in            The stream holding the wavelet file.
+   * @param referenceName The reference name for the loaded image.
+   * @param scale         The number of finest levels to skip; the image is loaded at 1/2^scale
+   *                      of its size, and 0 loads it in full.
+   * @return A boolean indicating if the stream held a wavelet image.
+   * @throws IOException If an I/O error occurs during image loading.
+   */
+  boolean loadWavelet(InputStream in, String referenceName, int scale) throws IOException;
+
   /**
    * Saves an image referenced by the given name to a specified file path in PPM format.
    *
@@ -74,6 +100,17 @@ public interface ImageModel {
    */
   BufferedImage saveImage1(String filePath, String referenceName) throws IOException;
 
+  /**
+   * Encodes an image in the wavelet format. A compressed image is stored with the coefficients
+   * that survived its threshold; any other image is stored losslessly with the coefficients of
+   * the integer transform.
+   *
+   * @param referenceName The reference name for the image to be saved.
+   * @return The contents of the wavelet file.
+   * @throws IOException If an I/O error occurs during the image saving process.
+   */
+  byte[] saveWavelet(String referenceName) throws IOException;
+
 
   /**
    * Performs a flipping operation (vertical or horizontal)
@@ -87,6 +124,18 @@ public interface ImageModel {
    */
   void flipping(String flipOption, String imageName, String newImageName) throws IOException;
 
+  /**
+   * Rotates an image by a multiple of 90 degrees or transposes it, and saves the result under a
+   * new reference name.
+   *
+   * @param rotation     The operation to be performed ("rotate-90", "rotate-180", "rotate-270"
+   *                     or "transpose").
+   * @param imageName    The reference name of the original image to be rotated.
+   * @param newImageName The reference name for the rotated image after the operation.
+   * @throws IOException If an I/O error occurs during the rotation.
+   */
+  void rotating(String rotation, String imageName, String newImageName) throws IOException;
+
 
   /**
    * Converts the specified image to greyscale based on the given
@@ -115,6 +164,21 @@ public interface ImageModel {
    */
   void brightenImg(int value, String imageName, String newImageName) throws IOException;
 
+  /**
+   * Resizes the specified image and saves the result under a new reference name.
+   *
+   * @param imageName    The reference name of the image to resize.
+   * @param newImageName The reference name for the resized image.
+   * @param width        The new width, or 0 to keep the aspect ratio for the given height.
+   * @param height       The new height, or 0 to keep the aspect ratio for the given width.
+   * @param filter       The filter to resample with: "box", "bilinear" or "lanczos3".
+   * @throws IOException If an I/O error occurs during the resize operation.
+   * @throws IllegalArgumentException If the resized image would have more than
+   *     {@link Resampler#MAX_PIXELS} pixels.
+   */
+  void resize(String imageName, String newImageName, int width, int height, String filter)
+      throws IOException;
+
 
   /**
    * Combines separate red, green, and blue images into a single RGB image
@@ -233,9 +297,91 @@ public interface ImageModel {
 
   void compress(String fileName, String destFileName, int threshold);
 
+  /**
+   * Compresses an image with the threshold that meets a quality or size target, found by a
+   * binary search that transforms the image only once.
+   *
+   * @param fileName     The name of the image to compress.
+   * @param destFileName The name of the compressed image.
+   * @param target       "psnr" to keep the PSNR at or above the value, or "size" to keep the
+   *                     wavelet file at or below the value in bytes.
+   * @param value        The target PSNR in decibels or file size in bytes.
+   */
+  void compressToTarget(String fileName, String destFileName, String target, double value);
+
+  /**
+   * Compresses an image in independent tiles that are processed in parallel, sharing one
+   * threshold picked from a sample of the tiles.
+   *
+   * @param fileName     The name of the image to compress.
+   * @param destFileName The name of the compressed image.
+   * @param percentage   The percentage of distinct coefficient magnitudes to set to 0.
+   */
+  void compressTiled(String fileName, String destFileName, int percentage);
+
+  /**
+   * Compresses an image with the JPEG-style 8x8 block discrete cosine transform.
+   *
+   * @param fileName     The name of the image to compress.
+   * @param destFileName The name of the compressed image.
+   * @param percentage   The strength of the compression; the JPEG quality is 100 minus it.
+   */
+  void compressDct(String fileName, String destFileName, int percentage);
+
+  /**
+   * Compresses an image losslessly with the integer Haar transform. The compressed image has the
+   * same pixels as the original and is saved in the wavelet format with its exact coefficients.
+   *
+   * @param fileName     The name of the image to compress.
+   * @param destFileName The name of the compressed image.
+   */
+  void compressLossless(String fileName, String destFileName);
+
   void imgRedComp(String fileName, String destName);
 
   void imgGreenComp(String fileName, String destName);
 
   void imgBlueComp(String fileName, String destName);
+
+  /**
+   * Retrieves the dimensions of an image.
+   *
+   * @param referenceName The reference name of the image.
+   * @return The width and height of the image, or null if no image has that name.
+   */
+  int[] getImageSize(String referenceName);
+
+  /**
+   * Removes an image from the model and recycles its buffer.
+   *
+   * @param referenceName The reference name of the image to evict.
+   */
+  void evict(String referenceName);
+
+  /**
+   * Hashes the pixels of an image, so results computed from it can be found again.
+   *
+   * @param referenceName The reference name of the image.
+   * @return The SHA-256 of the size and pixels of the image, or null if no image has that name.
+   */
+  String pixelHash(String referenceName);
+
+  /**
+   * Writes the pixels of an image in the raw {@link PixelFile} format.
+   *
+   * @param referenceName The reference name of the image.
+   * @param out The stream to write to.
+   * @throws IOException If the stream cannot be written.
+   */
+  void writePixels(String referenceName, OutputStream out) throws IOException;
+
+  /**
+   * Reads an image in the raw {@link PixelFile} format and stores it under a name.
+   *
+   * @param in The stream to read from.
+   * @param referenceName The reference name to store the image under.
+   * @return True if the image was read; false if the stream does not hold a raw image.
+   * @throws IOException If the stream cannot be read.
+   */
+  boolean readPixels(InputStream in, String referenceName) throws IOException;
 }
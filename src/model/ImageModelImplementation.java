@@ -1,8 +1,10 @@
 package model;
 
-import controller.ImageController;
 import controller.ImageControllerImplementation;
+import controller.ScriptPlan;
+import java.awt.Rectangle;
 import java.awt.image.BufferedImage;
+import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
@@ -13,7 +15,8 @@ import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Scanner;
-import java.util.function.Function;
+import java.util.function.BiConsumer;
+import model.events.ImageTransformEvent;
 import view.ImageView;
 
 /**
@@ -23,6 +26,65 @@ import view.ImageView;
 public class ImageModelImplementation implements ImageModel {
 
   private final Map<String, Pixel> reference = new HashMap<String, Pixel>();
+  private final PixelBufferPool pool = new PixelBufferPool(2, 8);
+  private final DecodeCache decoded = DecodeCache.getInstance();
+
+  /**
+   * Stores an image under the given name. The buffer of an image it replaces goes back to the
+   * pool unless another name still refers to it.
+   *
+   * @param referenceName The reference name of the image.
+   * @param pixel The image to store.
+   */
+  private void store(String referenceName, Pixel pixel) {
+    Pixel previous = reference.put(referenceName, pixel);
+    if (previous != null && previous != pixel) {
+      recycle(previous);
+    }
+  }
+
+  /**
+   * Stores the result of an operation and records it as a flight recorder event.
+   *
+   * @param event The event begun when the operation started.
+   * @param operation The name of the operation.
+   * @param referenceName The reference name of the result.
+   * @param pixel The result of the operation.
+   */
+  private void storeTransformed(
+      ImageTransformEvent event, String operation, String referenceName, Pixel pixel) {
+    store(referenceName, pixel);
+    if (event.shouldCommit()) {
+      event.operation = operation;
+      event.setImage(referenceName, pixel.getPixel()[0].length, pixel.getPixel().length);
+      event.commit();
+    }
+  }
+
+  private void recycle(Pixel image) {
+    if (decoded.holds(image.getPixel())) {
+      return;
+    }
+    for (Pixel other : reference.values()) {
+      if (other.getPixel() == image.getPixel()) {
+        return;
+      }
+    }
+    pool.release(image.getPixel());
+  }
+
+  /**
+   * Removes an image from the model and recycles its buffer.
+   *
+   * @param referenceName The reference name of the image to evict.
+   */
+  @Override
+  public void evict(String referenceName) {
+    Pixel previous = reference.remove(referenceName);
+    if (previous != null) {
+      recycle(previous);
+    }
+  }
 
   private Integer maxVal(Pixel imageArray) {
     List<Integer>[][] img = imageArray.getPixel();
@@ -59,35 +121,6 @@ public class ImageModelImplementation implements ImageModel {
   public void applyBlur(String imageName) { // used for mock testing.
   }
 
-  /**
-   * Checks and identifies the component type based on the provided string input.
-   *
-   * @param component The string representing a particular image component (e.g., "red-component",
-   *     "blue-component").
-   * @return The identified component type as a string ("Red", "Blue", "Green", "Intensity",
-   *     "Value", "Luma"), or "Unrecognized Component" if the input does not match recognized
-   *     component types.
-   */
-  @Override
-  public String check(String component) {
-
-    if (component.equals("red-component")) {
-      return "Red";
-    } else if (component.equals("blue-component")) {
-      return "Blue";
-    } else if (component.equals("green-component")) {
-      return "Green";
-    } else if (component.equals("intensity-component")) {
-      return "Intensity";
-    } else if (component.equals("value-component")) {
-      return "Value";
-    } else if (component.equals("luma-component")) {
-      return "Luma";
-    } else {
-      return "Unrecognized Component";
-    }
-  }
-
   /**
    * Performs a flipping operation (vertical or horizontal) on an image and saves the result under a
    * new reference name.
@@ -100,11 +133,22 @@ public class ImageModelImplementation implements ImageModel {
    */
   @Override
   public void flipping(String flipType, String img, String newImgName) throws IOException {
-    ImageUtil image = new ImageUtil();
+    ImageTransformEvent event = new ImageTransformEvent();
+    event.begin();
+    ImageUtil image = new ImageUtil(pool);
     Pixel pixel = reference.get(img);
     Pixel newPixel =
         image.flip(flipType, pixel.getPixel()[0].length, pixel.getPixel().length, pixel);
-    reference.put(newImgName, newPixel);
+    storeTransformed(event, flipType.toLowerCase() + "-flip", newImgName, newPixel);
+  }
+
+  @Override
+  public void rotating(String rotation, String img, String newImgName) throws IOException {
+    ImageTransformEvent event = new ImageTransformEvent();
+    event.begin();
+    ImageUtil image = new ImageUtil(pool);
+    Pixel newPixel = image.rotate(rotation, reference.get(img));
+    storeTransformed(event, rotation, newImgName, newPixel);
   }
 
   /**
@@ -120,19 +164,20 @@ public class ImageModelImplementation implements ImageModel {
   @Override
   public void rgbImgsCombine(String redComp, String greenComp, String blueComp, String newImgName)
       throws IOException {
-    ImageUtil img = new ImageUtil();
+    ImageTransformEvent event = new ImageTransformEvent();
+    event.begin();
+    ImageUtil img = new ImageUtil(pool);
     Pixel redImg = reference.get(redComp);
     Pixel greenImg = reference.get(greenComp);
     Pixel blueImg = reference.get(blueComp);
     Pixel newPixel =
         img.rgbCombine(
             redImg, greenImg, blueImg, redImg.getPixel()[0].length, redImg.getPixel().length);
-    reference.put(newImgName, newPixel);
+    storeTransformed(event, "rgb-combine", newImgName, newPixel);
   }
 
   @Override
   public void compress(String fileName, String destFileName, int threshold) {
-    ImageUtil img = new ImageUtil();
     compressed(threshold, fileName, destFileName);
   }
 
@@ -144,81 +189,90 @@ public class ImageModelImplementation implements ImageModel {
    * @param outputPath Destination of the file.
    */
   public void compressed(int percentage, String fileName, String outputPath) {
-    ArrayList<Pixel> splittedImages = getAllComponentImages(fileName);
+    compressWith(fileName, outputPath,
+        (helper, image) -> helper.retrieveThresholdValue(percentage));
+  }
+
+  @Override
+  public void compressToTarget(String fileName, String destFileName, String target, double value) {
+    if (target.equals("psnr")) {
+      compressWith(fileName, destFileName,
+          (helper, image) -> helper.selectThresholdForPsnr(image, value));
+    } else {
+      compressWith(fileName, destFileName,
+          (helper, image) -> helper.selectThresholdForSize((long) value));
+    }
+  }
+
+  @Override
+  public void compressTiled(String fileName, String destFileName, int percentage) {
+    ImageTransformEvent event = new ImageTransformEvent();
+    event.begin();
     Pixel originalImage = reference.get(fileName);
-    CompressionHelper imageCompression =
-        new CompressionHelper(originalImage.getPixel().length, originalImage.getPixel()[0].length);
-    imageCompression.compThreshold(splittedImages.get(0));
-    imageCompression.compThreshold(splittedImages.get(1));
-    imageCompression.compThreshold(splittedImages.get(2));
-    imageCompression.retrieveThresholdValue(percentage);
-    imageCompression.afterThresh();
-    ArrayList<Pixel> results = imageCompression.unpadInverse();
-    Pixel result = combineAllComponents(results.get(0), results.get(1), results.get(2));
-    reference.put(outputPath, result);
-  }
-
-  Pixel combineAllComponents(Pixel image1, Pixel image2, Pixel image3) {
-
-    int referenceWidth = image1.getPixel().length;
-    int referenceHeight = image1.getPixel()[0].length;
-    List<Integer>[][] resultImagePixels =
-        new List[image1.getPixel().length][image1.getPixel()[0].length];
-
-    int red;
-    int blue;
-    int green;
-    for (int x = 0; x < referenceWidth; x++) {
-      for (int y = 0; y < referenceHeight; y++) {
-        List<Integer> appendToOutput = new ArrayList<>();
-
-        red =
-            image1.getPixel()[x][y].get(0)
-                + image2.getPixel()[x][y].get(0)
-                + image3.getPixel()[x][y].get(0);
-        green =
-            image1.getPixel()[x][y].get(1)
-                + image2.getPixel()[x][y].get(1)
-                + image3.getPixel()[x][y].get(1);
-        blue =
-            image1.getPixel()[x][y].get(2)
-                + image2.getPixel()[x][y].get(2)
-                + image3.getPixel()[x][y].get(2);
-        appendToOutput.add(0, red);
-        appendToOutput.add(1, green);
-        appendToOutput.add(2, blue);
-        resultImagePixels[x][y] = appendToOutput;
-      }
+    if (originalImage == null) {
+      throw new IllegalStateException("Image Not found or name entered in wrong syntax");
     }
-    return new PixelImplementation(resultImagePixels);
+    TiledCompression compression = new TiledCompression(TiledCompression.DEFAULT_TILE_SIZE);
+    Pixel result = compression.compress(originalImage, percentage,
+        pool.acquire(originalImage.getPixel().length, originalImage.getPixel()[0].length));
+    storeTransformed(event, "compress-tiled", destFileName, result);
   }
 
-  private ArrayList<Pixel> getAllComponentImages(String imageName) {
-    ArrayList<Pixel> images = new ArrayList<>();
-    Pixel image1 = applyOperationToAllPixels(pixel -> Arrays.asList(pixel.get(0), 0, 0), imageName);
-    Pixel image2 = applyOperationToAllPixels(pixel -> Arrays.asList(0, pixel.get(1), 0), imageName);
-    Pixel image3 = applyOperationToAllPixels(pixel -> Arrays.asList(0, 0, pixel.get(2)), imageName);
-    images.add(image1);
-    images.add(image2);
-    images.add(image3);
-    return images;
+  @Override
+  public void compressDct(String fileName, String destFileName, int percentage) {
+    ImageTransformEvent event = new ImageTransformEvent();
+    event.begin();
+    Pixel originalImage = reference.get(fileName);
+    if (originalImage == null) {
+      throw new IllegalStateException("Image Not found or name entered in wrong syntax");
+    }
+    DctCompression compression = new DctCompression(100 - percentage);
+    Pixel result = compression.compress(originalImage,
+        pool.acquire(originalImage.getPixel().length, originalImage.getPixel()[0].length));
+    storeTransformed(event, "compress-dct", destFileName, result);
   }
 
-  private Pixel applyOperationToAllPixels(
-      Function<List<Integer>, List<Integer>> operation, String imageName) {
-    Pixel image = this.reference.get(imageName);
-    if (image == null) {
+  @Override
+  public void compressLossless(String fileName, String destFileName) {
+    ImageTransformEvent event = new ImageTransformEvent();
+    event.begin();
+    Pixel originalImage = reference.get(fileName);
+    if (originalImage == null) {
       throw new IllegalStateException("Image Not found or name entered in wrong syntax");
     }
-    List<Integer>[][] resultImagePixels =
-        new List[image.getPixel().length][image.getPixel()[0].length];
+    WaveletCoefficients coefficients = WaveletCoefficients.lossless(originalImage);
+    PixelImplementation result =
+        coefficients.reconstruct(pool.acquire(coefficients.getRows(), coefficients.getColumns()));
+    result.setCoefficients(coefficients);
+    storeTransformed(event, "compress-lossless", destFileName, result);
+  }
 
-    for (int x = 0; x < image.getPixel().length; x++) {
-      for (int y = 0; y < image.getPixel()[0].length; y++) {
-        resultImagePixels[x][y] = operation.apply(image.getPixel()[x][y]);
-      }
+  /**
+   * Compresses an image with the threshold chosen by the given selection.
+   *
+   * @param fileName The name of the image to compress.
+   * @param outputPath The name of the compressed image.
+   * @param selection Selects the threshold once every channel has been transformed.
+   */
+  private void compressWith(String fileName, String outputPath,
+      BiConsumer<CompressionHelper, Pixel> selection) {
+    ImageTransformEvent event = new ImageTransformEvent();
+    event.begin();
+    Pixel originalImage = reference.get(fileName);
+    if (originalImage == null) {
+      throw new IllegalStateException("Image Not found or name entered in wrong syntax");
     }
-    return new PixelImplementation(resultImagePixels);
+    int rows = originalImage.getPixel().length;
+    int columns = originalImage.getPixel()[0].length;
+    CompressionHelper imageCompression = new CompressionHelper(rows, columns, fileName);
+    imageCompression.compThreshold(originalImage);
+    selection.accept(imageCompression, originalImage);
+    imageCompression.afterThresh();
+    WaveletCoefficients coefficients =
+        imageCompression.quantize(WaveletCoefficients.DEFAULT_STEP);
+    PixelImplementation result = imageCompression.inverseTransform(pool.acquire(rows, columns));
+    result.setCoefficients(coefficients);
+    storeTransformed(event, "compress", outputPath, result);
   }
 
   /**
@@ -233,11 +287,26 @@ public class ImageModelImplementation implements ImageModel {
    */
   @Override
   public void brightenImg(int value, String img, String newImgName) throws IOException {
-    ImageUtil image = new ImageUtil();
+    ImageTransformEvent event = new ImageTransformEvent();
+    event.begin();
+    ImageUtil image = new ImageUtil(pool);
     Pixel pixel = reference.get(img);
     Pixel newPixel =
         image.brightDark(value, pixel.getPixel()[0].length, pixel.getPixel().length, pixel);
-    reference.put(newImgName, newPixel);
+    storeTransformed(event, "brighten", newImgName, newPixel);
+  }
+
+  @Override
+  public void resize(String imgName, String newImgName, int width, int height, String filter)
+      throws IOException {
+    ImageTransformEvent event = new ImageTransformEvent();
+    event.begin();
+    ImageUtil image = new ImageUtil(pool);
+    Pixel pixel = reference.get(imgName);
+    int[] size = Resampler.targetSize(
+        pixel.getPixel()[0].length, pixel.getPixel().length, width, height);
+    Pixel newPixel = image.resize(pixel, size[0], size[1], Resampler.Filter.of(filter));
+    storeTransformed(event, "resize", newImgName, newPixel);
   }
 
   /**
@@ -252,11 +321,13 @@ public class ImageModelImplementation implements ImageModel {
    */
   @Override
   public void greyscaleImg(String option, String imgName, String newImgName) throws IOException {
-    ImageUtil image = new ImageUtil();
+    ImageTransformEvent event = new ImageTransformEvent();
+    event.begin();
+    ImageUtil image = new ImageUtil(pool);
     Pixel pixel = reference.get(imgName);
     Pixel newPixel =
         image.greyscaleImg(option, pixel.getPixel()[0].length, pixel.getPixel().length, pixel);
-    reference.put(newImgName, newPixel);
+    storeTransformed(event, "greyscale", newImgName, newPixel);
   }
 
   public static final double[][] SEPIAFILTER = {
@@ -276,7 +347,9 @@ public class ImageModelImplementation implements ImageModel {
   @Override
   public void imgSepia(String imgName, String newImgName, double splitPercentage)
       throws IOException {
-    ImageUtil image = new ImageUtil();
+    ImageTransformEvent event = new ImageTransformEvent();
+    event.begin();
+    ImageUtil image = new ImageUtil(pool);
     Pixel pixel = reference.get(imgName);
     Pixel newPixel =
         image.filterMultiply(
@@ -285,7 +358,7 @@ public class ImageModelImplementation implements ImageModel {
             pixel.getPixel()[0].length,
             pixel.getPixel().length,
             splitPercentage);
-    reference.put(newImgName, newPixel);
+    storeTransformed(event, "sepia", newImgName, newPixel);
   }
 
   public static final double[][] GREYSCALEFILTER = {
@@ -303,12 +376,14 @@ public class ImageModelImplementation implements ImageModel {
    */
   @Override
   public void newGreyscaleImg(String imgName, String newImgName) throws IOException {
-    ImageUtil image = new ImageUtil();
+    ImageTransformEvent event = new ImageTransformEvent();
+    event.begin();
+    ImageUtil image = new ImageUtil(pool);
     Pixel pixel = reference.get(imgName);
     Pixel newPixel =
         image.filterMultiply(
             GREYSCALEFILTER, pixel, pixel.getPixel()[0].length, pixel.getPixel().length, 0);
-    reference.put(newImgName, newPixel);
+    storeTransformed(event, "luma-greyscale", newImgName, newPixel);
   }
 
   public static final double[][] SHARPERFILTER = {
@@ -331,7 +406,9 @@ public class ImageModelImplementation implements ImageModel {
   @Override
   public void imgSharpen(String imgName, String newImgName, double splitPercentage)
       throws IOException {
-    ImageUtil image = new ImageUtil();
+    ImageTransformEvent event = new ImageTransformEvent();
+    event.begin();
+    ImageUtil image = new ImageUtil(pool);
     Pixel pixel = reference.get(imgName);
     Pixel newPixel =
         image.filter(
@@ -340,7 +417,7 @@ public class ImageModelImplementation implements ImageModel {
             pixel.getPixel()[0].length,
             pixel.getPixel().length,
             splitPercentage);
-    reference.put(newImgName, newPixel);
+    storeTransformed(event, "sharpen", newImgName, newPixel);
   }
 
   public static final double[][] BLURFILTER = {
@@ -360,7 +437,9 @@ public class ImageModelImplementation implements ImageModel {
   @Override
   public void imgblur(String imgName, String newImgName, double splitPercentage)
       throws IOException {
-    ImageUtil image = new ImageUtil();
+    ImageTransformEvent event = new ImageTransformEvent();
+    event.begin();
+    ImageUtil image = new ImageUtil(pool);
     Pixel pixel = reference.get(imgName);
     Pixel newPixel =
         image.filter(
@@ -369,7 +448,7 @@ public class ImageModelImplementation implements ImageModel {
             pixel.getPixel()[0].length,
             pixel.getPixel().length,
             splitPercentage);
-    reference.put(newImgName, newPixel);
+    storeTransformed(event, "blur", newImgName, newPixel);
   }
 
   /**
@@ -387,16 +466,15 @@ public class ImageModelImplementation implements ImageModel {
   public void runScript(
       Scanner scanner, ImageModel model, InputStream input, OutputStream output, ImageView view)
       throws IOException {
-    ImageController inst = new ImageControllerImplementation(model, input, output, view);
-
-    while (scanner.hasNextLine()) {
-      String scan = scanner.nextLine();
-      if (scan.charAt(0) != '#') {
-        view.viewOutput(inst.commandExecute(model, scan), output);
-        System.out.println();
-      }
+    ImageControllerImplementation inst =
+        new ImageControllerImplementation(model, input, output, view);
+    ScriptPlan plan = inst.compile(scanner, model.getRefNames());
+    if (!plan.getErrors().isEmpty()) {
+      view.viewOutput(String.join("\n", plan.getErrors())
+          + "\nScript not run: " + plan.getErrors().size() + " error(s)", output);
+      return;
     }
-    scanner.close();
+    plan.run(model, view, output);
   }
 
   /**
@@ -409,10 +487,10 @@ public class ImageModelImplementation implements ImageModel {
    */
   @Override
   public boolean loadImage(Scanner sc, String referenceName) throws IOException {
-    ImageUtil image = new ImageUtil();
+    ImageUtil image = new ImageUtil(pool);
     Pixel pixel = image.ppmRead(sc);
     if (pixel != null) {
-      reference.put(referenceName, pixel);
+      store(referenceName, pixel);
       return true;
     }
     return false;
@@ -427,9 +505,70 @@ public class ImageModelImplementation implements ImageModel {
    */
   @Override
   public void loadImage(BufferedImage inputImg, String references) throws IOException {
-    ImageUtil image = new ImageUtil();
+    ImageUtil image = new ImageUtil(pool);
     Pixel pixel = image.readOtherFormatsFile(inputImg);
-    reference.put(references, pixel);
+    store(references, pixel);
+  }
+
+  @Override
+  public String pixelHash(String referenceName) {
+    Pixel pixel = reference.get(referenceName);
+    return pixel == null ? null : PixelFile.hash(pixel);
+  }
+
+  @Override
+  public void writePixels(String referenceName, OutputStream out) throws IOException {
+    PixelFile.write(reference.get(referenceName), out);
+  }
+
+  @Override
+  public boolean readPixels(InputStream in, String referenceName) throws IOException {
+    Pixel pixel = PixelFile.read(in, pool);
+    if (pixel == null) {
+      return false;
+    }
+    store(referenceName, pixel);
+    return true;
+  }
+
+  @Override
+  public boolean loadImage(File file, String referenceName) throws IOException {
+    Pixel pixel = decoded.load(file, pool);
+    if (pixel == null) {
+      return false;
+    }
+    store(referenceName, pixel);
+    return true;
+  }
+
+  @Override
+  public boolean loadImage(File file, String referenceName, Rectangle region, int subsample)
+      throws IOException {
+    if (region == null && subsample == 1) {
+      return loadImage(file, referenceName);
+    }
+    Pixel pixel = new ImageUtil(pool).readRegion(file, region, subsample);
+    if (pixel == null) {
+      return false;
+    }
+    store(referenceName, pixel);
+    return true;
+  }
+
+  @Override
+  public boolean loadWavelet(InputStream in, String referenceName, int scale)
+      throws IOException {
+    WaveletCoefficients coefficients = WaveletCodec.decode(in, scale);
+    if (coefficients == null) {
+      return false;
+    }
+    PixelImplementation pixel = coefficients.reconstruct(
+        pool.acquire(coefficients.getRows(), coefficients.getColumns()));
+    if (scale == 0) {
+      pixel.setCoefficients(coefficients);
+    }
+    store(referenceName, pixel);
+    return true;
   }
 
   /**
@@ -442,7 +581,7 @@ public class ImageModelImplementation implements ImageModel {
    */
   @Override
   public StringBuilder saveImage(String path, String references) throws IOException {
-    ImageUtil image = new ImageUtil();
+    ImageUtil image = new ImageUtil(pool);
     Pixel pixel = reference.get(references);
     return image.ppmCreate(
         "P3", pixel.getPixel()[0].length, pixel.getPixel().length, maxVal(pixel), pixel, path);
@@ -458,11 +597,24 @@ public class ImageModelImplementation implements ImageModel {
    */
   @Override
   public BufferedImage saveImage1(String path, String references) throws IOException {
-    ImageUtil image = new ImageUtil();
+    ImageUtil image = new ImageUtil(pool);
     Pixel pixel = reference.get(references);
     return image.createImage(pixel, path);
   }
 
+  @Override
+  public byte[] saveWavelet(String referenceName) throws IOException {
+    Pixel pixel = reference.get(referenceName);
+    WaveletCoefficients coefficients = null;
+    if (pixel instanceof PixelImplementation) {
+      coefficients = ((PixelImplementation) pixel).getCoefficients();
+    }
+    if (coefficients == null) {
+      coefficients = WaveletCoefficients.lossless(pixel);
+    }
+    return WaveletCodec.encode(coefficients);
+  }
+
   /**
    * Checks if the provided option is the command to quit the application.
    *
@@ -484,7 +636,7 @@ public class ImageModelImplementation implements ImageModel {
    */
   @Override
   public void histogram(String imageName, String newImageName) throws IOException {
-    ImageUtil image = new ImageUtil();
+    ImageUtil image = new ImageUtil(pool);
     List<Integer>[][] imagePixel = reference.get(imageName).getPixel();
     image.fetchHist(imageName, newImageName, imagePixel);
   }
@@ -504,10 +656,12 @@ public class ImageModelImplementation implements ImageModel {
   @Override
   public void levelAdj(String imgName, String newImgName, int b, int m, int w, double splitPercent)
       throws IOException {
-    ImageUtil image = new ImageUtil();
+    ImageTransformEvent event = new ImageTransformEvent();
+    event.begin();
+    ImageUtil image = new ImageUtil(pool);
     List<Integer>[][] pixel = reference.get(imgName).getPixel();
     Pixel newPixel = image.levelAdjustImg(b, m, w, splitPercent, pixel);
-    reference.put(newImgName, newPixel);
+    storeTransformed(event, "levels-adjust", newImgName, newPixel);
   }
 
   /**
@@ -521,15 +675,16 @@ public class ImageModelImplementation implements ImageModel {
   @Override
   public void imageCorrection(String imgName, String newImgName, double splitPercent)
       throws IOException {
-    ImageUtil image = new ImageUtil();
-    List<Integer>[][] pixel = reference.get(imgName).getPixel();
-    Pixel newPixel = image.colorCorrectionImg(imgName, newImgName, splitPercent, pixel);
-    reference.put(newImgName, newPixel);
+    ImageTransformEvent event = new ImageTransformEvent();
+    event.begin();
+    ImageUtil image = new ImageUtil(pool);
+    Pixel newPixel = image.colorCorrectionImg(splitPercent, reference.get(imgName));
+    storeTransformed(event, "color-correction", newImgName, newPixel);
   }
 
   @Override
   public BufferedImage viewImage(String referenceName) throws IOException {
-    ImageUtil img = new ImageUtil();
+    ImageUtil img = new ImageUtil(pool);
     return img.createImageFile(reference.get(referenceName));
   }
 
@@ -539,27 +694,39 @@ public class ImageModelImplementation implements ImageModel {
   }
 
   @Override
-  public void imgRedComp(String s, String d) {
+  public int[] getImageSize(String referenceName) {
+    Pixel pixel = reference.get(referenceName);
+    if (pixel == null) {
+      return null;
+    }
+    return new int[] {pixel.getPixel()[0].length, pixel.getPixel().length};
+  }
 
+  @Override
+  public void imgRedComp(String s, String d) {
+    ImageTransformEvent event = new ImageTransformEvent();
+    event.begin();
     Pixel pixel = reference.get(s);
     Pixel pixelRed = buildRedPixelImage(pixel);
-    this.reference.put(d, pixelRed);
+    storeTransformed(event, "red-component", d, pixelRed);
   }
 
   @Override
   public void imgGreenComp(String s, String d) {
-
+    ImageTransformEvent event = new ImageTransformEvent();
+    event.begin();
     Pixel pixel = reference.get(s);
     Pixel pixelGreen = buildGreenPixelImage(pixel);
-    this.reference.put(d, pixelGreen);
+    storeTransformed(event, "green-component", d, pixelGreen);
   }
 
   @Override
   public void imgBlueComp(String s, String d) {
-
+    ImageTransformEvent event = new ImageTransformEvent();
+    event.begin();
     Pixel pixel = reference.get(s);
     Pixel pixelBlue = buildBluePixelImage(pixel);
-    this.reference.put(d, pixelBlue);
+    storeTransformed(event, "blue-component", d, pixelBlue);
   }
 
   private Pixel buildRedPixelImage(Pixel orgImage) {
@@ -567,7 +734,7 @@ public class ImageModelImplementation implements ImageModel {
     int imageHeight = orgImage.getPixel()[0].length;
     int rComponent = 0;
     List<Integer>[][] redImage = null;
-    redImage = new List[imageHeight][imageWidth];
+    redImage = PixelBufferPool.allocate(imageHeight, imageWidth);
     for (int k = 0; k < imageHeight; k++) {
       for (int l = 0; l < imageWidth; l++) {
         List<Integer> addcomp = new ArrayList<>();
@@ -584,7 +751,7 @@ public class ImageModelImplementation implements ImageModel {
     int imageHeight = orgImage.getPixel()[0].length;
     int gComponent = 0;
     List<Integer>[][] greenImage = null;
-    greenImage = new List[imageHeight][imageWidth];
+    greenImage = PixelBufferPool.allocate(imageHeight, imageWidth);
     for (int k = 0; k < imageHeight; k++) {
       for (int l = 0; l < imageWidth; l++) {
         List<Integer> addcomp = new ArrayList<>();
@@ -601,7 +768,7 @@ public class ImageModelImplementation implements ImageModel {
     int imageHeight = orgImage.getPixel()[0].length;
     int bComponent = 0;
     List<Integer>[][] blueImage = null;
-    blueImage = new List[imageHeight][imageWidth];
+    blueImage = PixelBufferPool.allocate(imageHeight, imageWidth);
     for (int k = 0; k < imageHeight; k++) {
       for (int l = 0; l < imageWidth; l++) {
         List<Integer> addcomp = new ArrayList<>();
@@ -0,0 +1,46 @@
+package model;
+
+import java.util.List;
+
+/**
+ * The image names a command is checked against before it runs. A model provides the names of
+ * the images it holds; a script compiler provides the names the earlier lines of the script will
+ * have defined by the time a line runs, so the script can be checked without executing it.
+ */
+public interface ImageNames {
+
+  /**
+   * Retrieves a list of reference names.
+   *
+   * @return The list of reference names.
+   */
+  List<String> getRefNames();
+
+  /**
+   * Checks and identifies the component type based on the provided string input.
+   *
+   * @param component The string representing a particular image component (e.g., "red-component",
+   *     "blue-component").
+   * @return The identified component type as a string ("Red", "Blue", "Green", "Intensity",
+   *     "Value", "Luma"), or "Unrecognized Component" if the input does not match recognized
+   *     component types.
+   */
+  default String check(String component) {
+    switch (component) {
+      case "red-component":
+        return "Red";
+      case "blue-component":
+        return "Blue";
+      case "green-component":
+        return "Green";
+      case "intensity-component":
+        return "Intensity";
+      case "value-component":
+        return "Value";
+      case "luma-component":
+        return "Luma";
+      default:
+        return "Unrecognized Component";
+    }
+  }
+}
@@ -7,17 +7,58 @@ import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
+import java.util.Iterator;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Scanner;
+import java.util.stream.IntStream;
 
 import javax.imageio.ImageIO;
+import javax.imageio.ImageReadParam;
+import javax.imageio.ImageReader;
+import javax.imageio.stream.ImageInputStream;
 
 /**
  * Utility class for handling image processing operations.
+ *
+ * <p>Every image operation is out-of-place: it reads the pixel lists of its input without
+ * modifying them and writes its result into a separate output buffer, so an image stored in the
+ * model never changes after it is stored. Unchanged pixels may be shared between the input and the
+ * output buffer, which is why pixel lists must be treated as read-only once they belong to an
+ * image. Output buffers are taken from the {@link PixelBufferPool} this utility was created with.
  */
 public class ImageUtil {
 
+  private static final int ROTATE_TILE = 64;
+
+  private final PixelBufferPool pool;
+
+  /**
+   * Constructs an ImageUtil that allocates a new buffer for every output image.
+   */
+  public ImageUtil() {
+    this(null);
+  }
+
+  /**
+   * Constructs an ImageUtil that takes its output buffers from the given pool.
+   *
+   * @param pool The pool of recycled pixel buffers, or null to always allocate new buffers.
+   */
+  public ImageUtil(PixelBufferPool pool) {
+    this.pool = pool;
+  }
+
+  /**
+   * Provides an output buffer of the given size, every entry of which must be assigned.
+   */
+  private List<Integer>[][] newBuffer(int height, int width) {
+    if (pool == null) {
+      return PixelBufferPool.allocate(height, width);
+    }
+    return pool.acquire(height, width);
+  }
+
   /**
    * Creates a PPM formatted string representing an image.
    *
@@ -112,7 +153,7 @@ public class ImageUtil {
     int height = scanner.nextInt();
     int maxValue = scanner.nextInt();
 
-    List<Integer>[][] img = new List[height][width];
+    List<Integer>[][] img = newBuffer(height, width);
     for (int i = 0; i < height; i++) {
       for (int j = 0; j < width; j++) {
         List<Integer> rgb = new LinkedList<>();
@@ -140,7 +181,7 @@ public class ImageUtil {
     int width = input.getWidth();
     int height = input.getHeight();
 
-    List<Integer>[][] img = new List[height][width];
+    List<Integer>[][] img = newBuffer(height, width);
     for (int i = 0; i < height; i++) {
       for (int j = 0; j < width; j++) {
         int pixel = input.getRGB(j, i);
@@ -157,6 +198,64 @@ public class ImageUtil {
     return new PixelImplementation(img);
   }
 
+  /**
+   * Reads a rectangle of an image file, keeping every n-th pixel of every n-th row of it starting
+   * at its top left corner. PNG, JPEG and BMP files are read through an image reader with the
+   * rectangle as its source region and n as its subsampling, so only the kept pixels are stored;
+   * PPM files are tokenized row by row and only the kept pixels are boxed.
+   *
+   * @param file      The PPM, PNG, JPEG or BMP file.
+   * @param region    The rectangle to read, clipped to the image, or null for the whole image.
+   * @param subsample The distance n between kept pixels in both directions.
+   * @return The image, ceil(width / n) by ceil(height / n) pixels of the clipped rectangle, or
+   *          null if the file is not a valid image.
+   * @throws IOException              If the file cannot be read.
+   * @throws IllegalArgumentException If the rectangle lies outside the image.
+   */
+  public Pixel readRegion(File file, Rectangle region, int subsample) throws IOException {
+    if (file.getName().endsWith(".ppm")) {
+      try (PpmReader ppm = PpmReader.open(file)) {
+        if (ppm == null) {
+          return null;
+        }
+        Rectangle area = clip(region, ppm.width(), ppm.height());
+        int rows = (area.height + subsample - 1) / subsample;
+        List<Integer>[][] img = newBuffer(rows, (area.width + subsample - 1) / subsample);
+        for (int y = 0; y < area.y + area.height; y++) {
+          boolean kept = y >= area.y && (y - area.y) % subsample == 0;
+          ppm.readRow(kept ? img[(y - area.y) / subsample] : null, area.x, subsample);
+        }
+        return new PixelImplementation(img);
+      }
+    }
+    try (ImageInputStream in = ImageIO.createImageInputStream(file)) {
+      Iterator<ImageReader> readers = in == null
+          ? Collections.emptyIterator() : ImageIO.getImageReaders(in);
+      if (!readers.hasNext()) {
+        return null;
+      }
+      ImageReader reader = readers.next();
+      try {
+        reader.setInput(in, true);
+        ImageReadParam param = reader.getDefaultReadParam();
+        param.setSourceRegion(clip(region, reader.getWidth(0), reader.getHeight(0)));
+        param.setSourceSubsampling(subsample, subsample, 0, 0);
+        return readOtherFormatsFile(reader.read(0, param));
+      } finally {
+        reader.dispose();
+      }
+    }
+  }
+
+  private static Rectangle clip(Rectangle region, int width, int height) {
+    Rectangle image = new Rectangle(0, 0, width, height);
+    Rectangle area = region == null ? image : region.intersection(image);
+    if (area.isEmpty()) {
+      throw new IllegalArgumentException("The region lies outside the image");
+    }
+    return area;
+  }
+
   /**
    * Creates a BufferedImage from the provided Pixel representation.
    *
@@ -198,7 +297,7 @@ public class ImageUtil {
    * @throws IOException If an I/O error occurs during the greyscale conversion process.
    */
   public Pixel greyscaleImg(String command, int width, int height, Pixel pixel) throws IOException {
-    List<Integer>[][] output = new List[height][width];
+    List<Integer>[][] output = newBuffer(height, width);
     List<Integer>[][] img = pixel.getPixel();
 
     for (int i = 0; i < height; i++) {
@@ -256,7 +355,7 @@ public class ImageUtil {
    * @throws IOException If an I/O error occurs during the flipping process.
    */
   public Pixel flip(String command, int width, int height, Pixel pixel) throws IOException {
-    List<Integer>[][] outFlip = new List[height][width];
+    List<Integer>[][] outFlip = newBuffer(height, width);
     List<Integer>[][] img = pixel.getPixel();
     for (int i = 0; i < height; i++) {
       for (int j = 0; j < width; j++) {
@@ -285,6 +384,56 @@ public class ImageUtil {
     return new PixelImplementation(outFlip);
   }
 
+  /**
+   * Rotates the provided Pixel image by a multiple of 90 degrees or transposes it. A quarter turn
+   * or transpose moves every pixel from a row to a column, so the image is processed in square
+   * tiles, in parallel, small enough that the source rows and destination rows of a tile stay in
+   * cache while it is copied; a half turn only reverses rows and runs over them in parallel. The
+   * pixels are shared with the input, but every row of the output is a new array.
+   *
+   * @param rotation The operation: "rotate-90" and "rotate-270" turn the image clockwise and
+   *                 counter-clockwise, "rotate-180" turns it upside down and "transpose" swaps
+   *                 its rows and columns.
+   * @param pixel    The Pixel object containing the original image data.
+   * @return A Pixel object representing the rotated image.
+   */
+  public Pixel rotate(String rotation, Pixel pixel) {
+    List<Integer>[][] img = pixel.getPixel();
+    int height = img.length;
+    int width = img[0].length;
+    if (rotation.equals("rotate-180")) {
+      List<Integer>[][] output = newBuffer(height, width);
+      IntStream.range(0, height).parallel().forEach(i -> {
+        List<Integer>[] from = img[i];
+        List<Integer>[] to = output[height - 1 - i];
+        for (int j = 0; j < width; j++) {
+          to[width - 1 - j] = from[j];
+        }
+      });
+      return new PixelImplementation(output);
+    }
+
+    boolean reverseRows = rotation.equals("rotate-270");
+    boolean reverseColumns = rotation.equals("rotate-90");
+    List<Integer>[][] output = newBuffer(width, height);
+    int tilesAcross = (width + ROTATE_TILE - 1) / ROTATE_TILE;
+    int tilesDown = (height + ROTATE_TILE - 1) / ROTATE_TILE;
+    IntStream.range(0, tilesAcross * tilesDown).parallel().forEach(tile -> {
+      int top = tile / tilesAcross * ROTATE_TILE;
+      int left = tile % tilesAcross * ROTATE_TILE;
+      int bottom = Math.min(height, top + ROTATE_TILE);
+      int right = Math.min(width, left + ROTATE_TILE);
+      for (int i = top; i < bottom; i++) {
+        List<Integer>[] from = img[i];
+        int column = reverseColumns ? height - 1 - i : i;
+        for (int j = left; j < right; j++) {
+          output[reverseRows ? width - 1 - j : j][column] = from[j];
+        }
+      }
+    });
+    return new PixelImplementation(output);
+  }
+
   /**
    * Adjusts the brightness of the provided image by adding or subtracting the specified value to
    * each pixel component.
@@ -299,7 +448,7 @@ public class ImageUtil {
    * @throws IOException If an I/O error occurs during the brightness adjustment process.
    */
   public Pixel brightDark(int val, int width, int height, Pixel pixel) throws IOException {
-    List<Integer>[][] output = new List[height][width];
+    List<Integer>[][] output = newBuffer(height, width);
     List<Integer>[][] img = pixel.getPixel();
 
     for (int i = 0; i < height; i++) {
@@ -321,12 +470,29 @@ public class ImageUtil {
           appendToOutput.add(elementTwo);
           appendToOutput.add(elementThree);
           output[i][j] = appendToOutput;
+        } else {
+          output[i][j] = img[i][j];
         }
       }
     }
     return new PixelImplementation(output);
   }
 
+  /**
+   * Resizes an image with a separable filter; see {@link Resampler}.
+   *
+   * @param pixel  The Pixel object containing the original image data.
+   * @param width  The new width.
+   * @param height The new height.
+   * @param filter The filter to resample with.
+   * @return A Pixel object representing the resized image.
+   * @throws IllegalArgumentException If the resized image would be too large.
+   */
+  public Pixel resize(Pixel pixel, int width, int height, Resampler.Filter filter) {
+    Resampler.checkSize(width, height);
+    return Resampler.resize(pixel, width, height, filter, newBuffer(height, width));
+  }
+
   /**
    * Applies a custom filter matrix to modify a portion of the provided image pixels.
    *
@@ -342,7 +508,7 @@ public class ImageUtil {
   public Pixel filterMultiply(
           double[][] filter, Pixel pixel, int width, int height, double splitPercentage) {
     List<Integer>[][] outputImg = pixel.getPixel();
-    List<Integer>[][] outputImg1 = new List[height][width];
+    List<Integer>[][] outputImg1 = newBuffer(height, width);
 
     int splitPosition = (int) (width * (splitPercentage / 100));
     for (int i = 0; i < height; i++) {
@@ -402,7 +568,7 @@ public class ImageUtil {
   public Pixel filter(
           Pixel pixel, double[][] filter, int width, int height, double splitPercentage) {
 
-    List<Integer>[][] filterImg = new List[height][width];
+    List<Integer>[][] filterImg = newBuffer(height, width);
     List<Integer>[][] image = pixel.getPixel();
     int middle = filter.length / 2;
 
@@ -489,7 +655,9 @@ public class ImageUtil {
   }
 
   /**
-   * Adjusts the levels of an image for a specific color channel based on provided parameters.
+   * Adjusts the levels of an image for a specific color channel based on provided parameters. The
+   * curve is the same for every channel, so it is evaluated once per value into a lookup table. The
+   * input image is left unchanged.
    *
    * @param b    The minimum input level.
    * @param m    The middle input level.
@@ -507,88 +675,143 @@ public class ImageUtil {
       splitPos = width;
     }
 
-    for (int c = 0; c < 3; c++) {
+    double a = computeA(b, m, w);
+    double aA = computeAa(b, m, w);
+    double bA = computeAb(b, m, w);
+    double cA = computeAc(b, m, w);
 
-      double a = computeA(b, m, w);
-      double aA = computeAa(b, m, w);
-      double bA = computeAb(b, m, w);
-      double cA = computeAc(b, m, w);
+    int[] lut = new int[256];
+    for (int v = 0; v < 256; v++) {
+      lut[v] = quadEqu(a, aA, bA, cA, v);
+    }
 
-      for (int i = 0; i < height; i++) {
-        for (int j = 0; j < width; j++) {
-          if (j < splitPos) {
-            List<Integer> rgb = img[i][j];
+    List<Integer>[][] output = newBuffer(height, width);
+    for (int i = 0; i < height; i++) {
+      for (int j = 0; j < width; j++) {
+        List<Integer> rgb = img[i][j];
+        if (j < splitPos) {
+          List<Integer> adjusted = new ArrayList<>(3);
+          for (int c = 0; c < 3; c++) {
             int prevVal = rgb.get(c);
-            int newVal = quadEqu(a, aA, bA, cA, prevVal);
-            newVal = Math.max(0, Math.min(newVal, 255)); // Clipping the value to 0-255 range
-            rgb.set(c, newVal);
+            adjusted.add(prevVal >= 0 && prevVal < 256
+                    ? lut[prevVal] : quadEqu(a, aA, bA, cA, prevVal));
           }
+          output[i][j] = adjusted;
+        } else {
+          output[i][j] = rgb;
         }
       }
     }
 
-    return new PixelImplementation(img);
+    return new PixelImplementation(output);
   }
 
   /**
    * Performs color correction on an image based on calculated peak values for RGB channels and an
-   * average peak value. Adjusts the image pixels according to the split percentage and calculated
-   * peak values.
+   * average peak value. The per-channel offsets are reduced to one lookup table per channel, which
+   * is applied to all three channels in a single parallel pass over the rows. The peaks depend only
+   * on the source image, so they are cached with it and reused by later previews at a different
+   * split percentage.
    *
-   * @param imageName       The name of the original image file.
-   * @param destImage       The destination image file name after correction.
    * @param splitPercentage The percentage value used to split the width of the image for
    *                        correction.
-   * @param img             The 2D list representing the image pixel values to be corrected.
+   * @param pixel           The Pixel object containing the image to be corrected.
    * @return A Pixel object representing the color-corrected image.
-   * @throws IOException Signals that an I/O exception has occurred.
    */
-  public Pixel colorCorrectionImg(
-          String imageName, String destImage, double splitPercentage, List<Integer>[][] img)
-          throws IOException {
+  public Pixel colorCorrectionImg(double splitPercentage, Pixel pixel) {
+    List<Integer>[][] img = pixel.getPixel();
     int height = img.length;
     int width = img[0].length;
 
-    int[][] histImg = fetchHist(imageName, destImage, img);
-
-    int[] rPeak = findPeak(histImg[0]);
-    int[] gPeak = findPeak(histImg[1]);
-    int[] bPeak = findPeak(histImg[2]);
-
-    double avgRPeak = rPeak[1];
-    double avgGPeak = gPeak[1];
-    double avgBPeak = bPeak[1];
+    int[] peaks = fetchChannelPeaks(pixel);
+    double average = (peaks[0] + peaks[1] + peaks[2]) / 3.0;
 
-    double average = (avgRPeak + avgBPeak + avgGPeak) / 3;
+    int[][] lut = new int[3][256];
+    for (int c = 0; c < 3; c++) {
+      for (int v = 0; v < 256; v++) {
+        lut[c][v] = offsetVal(v, average - peaks[c]);
+      }
+    }
 
     int splitPos = (int) (width * (splitPercentage / 100.0));
     if (splitPercentage == 0.0) {
       splitPos = width;
     }
+    final int split = splitPos;
 
-    for (int k = 0; k < height; k++) {
+    List<Integer>[][] output = newBuffer(height, width);
+    IntStream.range(0, height).parallel().forEach(k -> {
       for (int l = 0; l < width; l++) {
-        if (l < splitPos) {
-          img[k][l] = offsetVal(img[k][l], 0, rPeak[1], average);
-          img[k][l] = offsetVal(img[k][l], 1, gPeak[1], average);
-          img[k][l] = offsetVal(img[k][l], 2, bPeak[1], average);
+        List<Integer> rgb = img[k][l];
+        if (l < split) {
+          List<Integer> corrected = new ArrayList<>(3);
+          for (int c = 0; c < 3; c++) {
+            int value = rgb.get(c);
+            corrected.add(value >= 0 && value < 256
+                    ? lut[c][value] : offsetVal(value, average - peaks[c]));
+          }
+          output[k][l] = corrected;
+        } else {
+          output[k][l] = rgb;
         }
       }
-    }
+    });
 
-    return new PixelImplementation(img);
+    return new PixelImplementation(output);
   }
 
-  // Helper method to offset values for a specific channel
-  private List<Integer> offsetVal(List<Integer> img, int chan, int peak, double average) {
-    double offset = average - peak;
-    double newVal = img.get(chan) + offset;
+  // Helper method to offset a single channel value, clamped to [0, 255] and rounded
+  private static int offsetVal(int value, double offset) {
+    double newVal = Math.min(Math.max(value + offset, 0), 255);
+    return (int) Math.round(newVal);
+  }
 
-    // Clamping newVal to the range [0, 255] and rounding it to the nearest integer
-    newVal = Math.min(Math.max(newVal, 0), 255);
-    img.set(chan, (int) Math.round(newVal));
+  /**
+   * Finds the histogram peak of each channel, reusing the peaks cached with the image if a
+   * previous color correction already computed them.
+   */
+  private int[] fetchChannelPeaks(Pixel pixel) {
+    if (pixel instanceof PixelImplementation) {
+      int[] cached = ((PixelImplementation) pixel).getChannelPeaks();
+      if (cached != null) {
+        return cached;
+      }
+    }
+    int[][] histImg = channelHistogram(pixel.getPixel());
+    int[] peaks = new int[]{
+        findPeak(histImg[0])[1], findPeak(histImg[1])[1], findPeak(histImg[2])[1]};
+    if (pixel instanceof PixelImplementation) {
+      ((PixelImplementation) pixel).setChannelPeaks(peaks);
+    }
+    return peaks;
+  }
 
-    return img;
+  /**
+   * Counts the red, green and blue values of an image, merging per-thread partial histograms.
+   * Values outside [0, 255] are not counted.
+   */
+  private static int[][] channelHistogram(List<Integer>[][] image) {
+    int width = image[0].length;
+    return IntStream.range(0, image.length).parallel().collect(
+        () -> new int[3][256],
+        (hist, k) -> {
+          for (int l = 0; l < width; l++) {
+            List<Integer> rgb = image[k][l];
+            for (int c = 0; c < 3; c++) {
+              int value = rgb.get(c);
+              if (value >= 0 && value < 256) {
+                hist[c][value]++;
+              }
+            }
+          }
+        },
+        (left, right) -> {
+          for (int c = 0; c < 3; c++) {
+            for (int v = 0; v < 256; v++) {
+              left[c][v] += right[c][v];
+            }
+          }
+        });
   }
 
   private int[] findPeak(int[] chanHist) {
@@ -705,7 +928,7 @@ public class ImageUtil {
     List<Integer>[][] green = greenImage.getPixel();
     List<Integer>[][] blue = blueImage.getPixel();
 
-    List<Integer>[][] finalImg = new List[height][width];
+    List<Integer>[][] finalImg = newBuffer(height, width);
 
     for (int i = 0; i < height; i++) {
       for (int j = 0; j < width; j++) {
@@ -722,130 +945,6 @@ public class ImageUtil {
     return new PixelImplementation(finalImg);
   }
 
-  private static BufferedImage padImage(BufferedImage image) {
-    int originalWidth = image.getWidth();
-    int originalHeight = image.getHeight();
-    int newSize = Math.max(originalWidth, originalHeight);
-    int paddedSize = Integer.highestOneBit(newSize - 1) << 1;
-
-    BufferedImage paddedImage =
-            new BufferedImage(paddedSize, paddedSize, BufferedImage.TYPE_INT_RGB);
-    Graphics g = paddedImage.getGraphics();
-    g.drawImage(image, (paddedSize - originalWidth) / 2, (paddedSize - originalHeight) / 2, null);
-    g.dispose();
-
-    return paddedImage;
-  }
-
-  private static BufferedImage transformImage(BufferedImage image) {
-    int width = image.getWidth();
-    int height = image.getHeight();
-    double[][][] channels = imageToDoubleArrays(image);
-
-    for (int c = 0; c < 3; c++) {
-      for (int size = Math.max(width, height); size > 1; size /= 2) {
-        for (int i = 0; i < size; i++) {
-          channels[c][i] = transform(channels[c][i], size);
-        }
-
-        for (int j = 0; j < size; j++) {
-          double[] column = new double[size];
-          for (int i = 0; i < size; i++) {
-            column[i] = channels[c][i][j];
-          }
-          column = transform(column, size);
-          for (int i = 0; i < size; i++) {
-            channels[c][i][j] = column[i];
-          }
-        }
-      }
-    }
-
-    return doubleArraysToImage(channels);
-  }
-
-  private static BufferedImage thresholdImage(BufferedImage image, double thresholdPercentage) {
-    double[][][] channels = imageToDoubleArrays(image);
-    double[] allValues = getAllValues(channels);
-
-    Arrays.sort(allValues);
-
-    System.out.println(thresholdPercentage);
-    int thresholdIndex = (int) (allValues.length * thresholdPercentage);
-
-    thresholdIndex = Math.min(thresholdIndex, allValues.length - 1);
-
-    double thresholdValue = allValues[thresholdIndex];
-    for (int c = 0; c < 3; c++) {
-      for (int i = 0; i < image.getHeight(); i++) {
-        for (int j = 0; j < image.getWidth(); j++) {
-          channels[c][i][j] =
-                  (Math.abs(channels[c][i][j]) >= thresholdValue) ? channels[c][i][j] : 0.0;
-        }
-      }
-    }
-
-    return doubleArraysToImage(channels);
-  }
-
-  private static BufferedImage invertImage(BufferedImage image) {
-    int width = image.getWidth();
-    int height = image.getHeight();
-    double[][][] channels = imageToDoubleArrays(image);
-
-    for (int c = 0; c < 3; c++) {
-      for (int size = 2; size <= Math.max(width, height); size *= 2) {
-        for (int j = 0; j < size; j++) {
-          channels[c][j] = invert(channels[c][j], size);
-        }
-
-        for (int i = 0; i < size; i++) {
-          double[] column = new double[size];
-          for (int j = 0; j < size; j++) {
-            column[j] = channels[c][j][i];
-          }
-          column = invert(column, size);
-          for (int j = 0; j < size; j++) {
-            channels[c][j][i] = column[j];
-          }
-        }
-      }
-    }
-
-    return doubleArraysToImage(channels);
-  }
-
-  private static BufferedImage unpadImage(
-          BufferedImage image, int originalWidth, int originalHeight) {
-    int paddedSize = image.getWidth();
-    int xOffset = (paddedSize - originalWidth) / 2;
-    int yOffset = (paddedSize - originalHeight) / 2;
-
-    return image.getSubimage(xOffset, yOffset, originalWidth, originalHeight);
-  }
-
-  private static double[] transform(double[] sequence, int size) {
-    double[] avg = new double[size / 2];
-    double[] diff = new double[size / 2];
-
-    for (int i = 0, j = 0; i < size - 1; i += 2, j++) {
-      double a = sequence[i];
-      double b = sequence[i + 1];
-      double av = (a + b) / Math.sqrt(2);
-      double di = (a - b) / Math.sqrt(2);
-      avg[j] = av;
-      diff[j] = di;
-    }
-
-    double[] result = new double[size];
-    for (int i = 0; i < size / 2; i++) {
-      result[i] = avg[i];
-      result[i + size / 2] = diff[i];
-    }
-
-    return result;
-  }
-
   /**
    * to compress file.
    * @param percentage      Threshold value for compression.
@@ -854,121 +953,22 @@ public class ImageUtil {
    * @return the compressed image.
    */
   public static Pixel compressImage(int percentage, String inputImagePath, String outputImagePath) {
-    List<Integer>[][] pixels = new List[0][];
+    Pixel compressed = new PixelImplementation(PixelBufferPool.allocate(0, 0));
     try {
       BufferedImage originalImage = ImageIO.read(new File(inputImagePath));
       int newWidth = (int) (originalImage.getWidth() * (percentage / 100.0));
       int newHeight = (int) (originalImage.getHeight() * (percentage / 100.0));
 
-      Image scaledImage = originalImage.getScaledInstance(newWidth, newHeight, Image.SCALE_SMOOTH);
-      BufferedImage compressedImage =
-              new BufferedImage(newWidth, newHeight, BufferedImage.TYPE_INT_RGB);
-      compressedImage.getGraphics().drawImage(scaledImage, 0, 0, null);
-
-      int width = compressedImage.getWidth();
-      int height = compressedImage.getHeight();
-
-      pixels = new List[height][width];
-      for (int i = 0; i < height; i++) {
+      ImageUtil util = new ImageUtil();
+      compressed = util.resize(util.readOtherFormatsFile(originalImage), newWidth, newHeight,
+              Resampler.Filter.BOX);
 
-        for (int j = 0; j < width; j++) {
-
-          int rgb = compressedImage.getRGB(j, i);
-
-          int red = (rgb >> 16) & 0xFF;
-          int green = (rgb >> 8) & 0xFF;
-          int blue = rgb & 0xFF;
-
-          List<Integer> rgbList = Arrays.asList(red, green, blue);
-
-          pixels[i][j] = rgbList;
-        }
-      }
-
-      ImageIO.write(compressedImage, "jpg", new File(outputImagePath));
+      ImageIO.write(util.createImageFile(compressed), "jpg", new File(outputImagePath));
       System.out.println("Image compression successful.");
     } catch (IOException e) {
       e.printStackTrace();
     }
-    return new PixelImplementation(pixels);
-  }
-
-  private static double[] invert(double[] sequence, int size) {
-    double[] avg = new double[size / 2];
-    double[] diff = new double[size / 2];
-
-    for (int i = 0, j = size / 2; j < size; i++, j++) {
-      if (i < sequence.length && j < sequence.length) {
-        double av = sequence[i];
-        double di = sequence[j];
-        double a = (av + di) / Math.sqrt(2);
-        double b = (av - di) / Math.sqrt(2);
-        avg[i] = Math.max(0, Math.min(255, a));
-        diff[i] = Math.max(0, Math.min(255, b));
-      }
-    }
-
-    double[] result = new double[size];
-    for (int i = 0, j = 0; i < size - 1; i += 2, j++) {
-      if (j < avg.length) {
-        result[i] = avg[j];
-        result[i + 1] = diff[j];
-      }
-    }
-
-    return result;
-  }
-
-  private static double[][][] imageToDoubleArrays(BufferedImage image) {
-    int width = image.getWidth();
-    int height = image.getHeight();
-    double[][][] channels = new double[3][height][width];
-
-    for (int i = 0; i < height; i++) {
-      for (int j = 0; j < width; j++) {
-        Color color = new Color(image.getRGB(j, i));
-        channels[0][i][j] = color.getRed();
-        channels[1][i][j] = color.getGreen();
-        channels[2][i][j] = color.getBlue();
-      }
-    }
-
-    return channels;
+    return compressed;
   }
 
-  private static BufferedImage doubleArraysToImage(double[][][] channels) {
-    int height = channels[0].length;
-    int width = channels[0][0].length;
-    BufferedImage image = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
-
-    for (int i = 0; i < height; i++) {
-      for (int j = 0; j < width; j++) {
-        int red = (int) channels[0][i][j];
-        int green = (int) channels[1][i][j];
-        int blue = (int) channels[2][i][j];
-        int rgb = (red << 16) | (green << 8) | blue;
-        image.setRGB(j, i, rgb);
-      }
-    }
-
-    return image;
-  }
-
-  private static double[] getAllValues(double[][][] channels) {
-    int height = channels[0].length;
-    int width = channels[0][0].length;
-
-    double[] values = new double[3 * height * width];
-    int index = 0;
-
-    for (int c = 0; c < 3; c++) {
-      for (int i = 0; i < height; i++) {
-        for (int j = 0; j < width; j++) {
-          values[index++] = channels[c][i][j];
-        }
-      }
-    }
-
-    return values;
-  }
 }
@@ -0,0 +1,148 @@
+package model;
+
+import java.util.stream.IntStream;
+
+/**
+ * Lossless integer Haar transform of one image channel, computed by lifting (the S-transform). A
+ * pair (a, b) becomes the difference d = a - b and the floor of its average s = b + (d >> 1), and
+ * is rebuilt exactly as b = s - (d >> 1), a = d + b. No floating point is involved, the channel is
+ * transformed in place and the inverse restores it bit for bit.
+ *
+ * <p>The layout is the one of {@link HaarTransform}: each level stores ceil(n/2) averages followed
+ * by floor(n/2) differences, the last value of an odd-length level is kept as its own average,
+ * every row is transformed before every column, and both passes run in parallel bands and
+ * strips. Since the averages are not scaled, the top-left block of any scale inverts to the
+ * image averaged over blocks of that scale, up to rounding.
+ */
+public class IntegerHaarTransform {
+
+  private static final int BAND_ROWS = 64;
+  private static final int STRIP_COLUMNS = 32;
+
+  private final int rows;
+  private final int columns;
+
+  /**
+   * Constructs a transform for channels of the given size.
+   *
+   * @param rows    The number of rows of the channel.
+   * @param columns The number of columns of the channel.
+   */
+  public IntegerHaarTransform(int rows, int columns) {
+    this.rows = rows;
+    this.columns = columns;
+  }
+
+  /**
+   * Transforms a channel in place, first along its rows and then along its columns.
+   *
+   * @param plane The channel values, row by row.
+   */
+  public void forward(int[] plane) {
+    rowPass(plane, true);
+    columnPass(plane, true);
+  }
+
+  /**
+   * Inverts the transform of a channel in place, first along its columns and then along its rows.
+   *
+   * @param plane The transformed channel values, row by row.
+   */
+  public void inverse(int[] plane) {
+    columnPass(plane, false);
+    rowPass(plane, false);
+  }
+
+  private void rowPass(int[] plane, boolean forward) {
+    int bands = (rows + BAND_ROWS - 1) / BAND_ROWS;
+    IntStream.range(0, bands).parallel().forEach(band -> {
+      int[] scratch = new int[columns];
+      int end = Math.min(rows, (band + 1) * BAND_ROWS);
+      for (int i = band * BAND_ROWS; i < end; i++) {
+        if (forward) {
+          forward(plane, i * columns, columns, scratch);
+        } else {
+          inverse(plane, i * columns, columns, scratch);
+        }
+      }
+    });
+  }
+
+  private void columnPass(int[] plane, boolean forward) {
+    int strips = (columns + STRIP_COLUMNS - 1) / STRIP_COLUMNS;
+    IntStream.range(0, strips).parallel().forEach(strip -> {
+      int left = strip * STRIP_COLUMNS;
+      int width = Math.min(STRIP_COLUMNS, columns - left);
+      int[] block = new int[width * rows];
+      int[] scratch = new int[rows];
+      for (int i = 0; i < rows; i++) {
+        for (int j = 0; j < width; j++) {
+          block[j * rows + i] = plane[i * columns + left + j];
+        }
+      }
+      for (int j = 0; j < width; j++) {
+        if (forward) {
+          forward(block, j * rows, rows, scratch);
+        } else {
+          inverse(block, j * rows, rows, scratch);
+        }
+      }
+      for (int i = 0; i < rows; i++) {
+        for (int j = 0; j < width; j++) {
+          plane[i * columns + left + j] = block[j * rows + i];
+        }
+      }
+    });
+  }
+
+  /**
+   * Transforms one contiguous line of values through all levels.
+   *
+   * @param data    The array holding the line.
+   * @param offset  The index of the first value of the line.
+   * @param length  The number of values in the line.
+   * @param scratch A scratch array at least as long as the line.
+   */
+  static void forward(int[] data, int offset, int length, int[] scratch) {
+    for (int n = length; n > 1; n = (n + 1) / 2) {
+      int half = (n + 1) / 2;
+      for (int k = 0; k < n / 2; k++) {
+        int a = data[offset + 2 * k];
+        int b = data[offset + 2 * k + 1];
+        int d = a - b;
+        scratch[k] = b + (d >> 1);
+        scratch[half + k] = d;
+      }
+      if (n % 2 == 1) {
+        scratch[half - 1] = data[offset + n - 1];
+      }
+      System.arraycopy(scratch, 0, data, offset, n);
+    }
+  }
+
+  /**
+   * Inverts the transform of one contiguous line of values, from the coarsest level.
+   *
+   * @param data    The array holding the line.
+   * @param offset  The index of the first value of the line.
+   * @param length  The number of values in the line.
+   * @param scratch A scratch array at least as long as the line.
+   */
+  static void inverse(int[] data, int offset, int length, int[] scratch) {
+    for (int level = HaarTransform.levelCount(length) - 1; level >= 0; level--) {
+      int n = HaarTransform.levelLength(length, level);
+      int half = (n + 1) / 2;
+      for (int k = 0; k < n / 2; k++) {
+        int s = data[offset + k];
+        int d = data[offset + half + k];
+        int b = s - (d >> 1);
+        scratch[2 * k] = d + b;
+        scratch[2 * k + 1] = b;
+      }
+      if (n % 2 == 1) {
+        scratch[n - 1] = data[offset + half - 1];
+      }
+      System.arraycopy(scratch, 0, data, offset, n);
+    }
+  }
+}
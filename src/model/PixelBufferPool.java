@@ -0,0 +1,83 @@
+package model;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A pool of pixel buffers keyed by their dimensions. Buffers of images that are overwritten or
+ * evicted from the model are released here and handed out again to the next operation producing
+ * an image of the same size, which keeps long scripts from allocating a fresh buffer per command.
+ *
+ * <p>A buffer acquired from the pool still holds the pixel lists of its previous image, so the
+ * caller must assign every entry before the buffer is published.
+ */
+public class PixelBufferPool {
+
+  private final int maxPerSize;
+  private final int maxBuffers;
+  private final Map<Long, Deque<List<Integer>[][]>> free = new HashMap<>();
+  private int pooled;
+
+  /**
+   * Constructs a pool holding at most the given number of idle buffers.
+   *
+   * @param maxPerSize The maximum number of idle buffers kept for one image size.
+   * @param maxBuffers The maximum number of idle buffers kept in total.
+   */
+  public PixelBufferPool(int maxPerSize, int maxBuffers) {
+    this.maxPerSize = maxPerSize;
+    this.maxBuffers = maxBuffers;
+  }
+
+  /**
+   * Hands out a buffer of the given size, reusing an idle one if the pool has it.
+   *
+   * @param height The number of rows of the buffer.
+   * @param width  The number of columns of the buffer.
+   * @return A buffer of the requested size whose entries must all be overwritten.
+   */
+  public synchronized List<Integer>[][] acquire(int height, int width) {
+    Deque<List<Integer>[][]> buffers = free.get(key(height, width));
+    if (buffers != null && !buffers.isEmpty()) {
+      pooled--;
+      return buffers.pop();
+    }
+    return allocate(height, width);
+  }
+
+  /**
+   * Allocates a new buffer of the given size, bypassing any pool.
+   *
+   * @param height The number of rows of the buffer; a width of 0 leaves the rows unallocated.
+   * @param width  The number of columns of the buffer.
+   * @return A new buffer of the requested size.
+   */
+  @SuppressWarnings({"unchecked", "rawtypes"})
+  static List<Integer>[][] allocate(int height, int width) {
+    return width == 0 ? new List[height][] : new List[height][width];
+  }
+
+  /**
+   * Returns a buffer that is no longer referenced by any image to the pool.
+   *
+   * @param buffer The buffer to recycle.
+   */
+  public synchronized void release(List<Integer>[][] buffer) {
+    if (buffer == null || buffer.length == 0 || pooled >= maxBuffers) {
+      return;
+    }
+    Deque<List<Integer>[][]> buffers =
+        free.computeIfAbsent(key(buffer.length, buffer[0].length), k -> new ArrayDeque<>());
+    if (buffers.size() < maxPerSize) {
+      buffers.push(buffer);
+      pooled++;
+    }
+  }
+
+  private static long key(int height, int width) {
+    return ((long) height << 32) | width;
+  }
+}
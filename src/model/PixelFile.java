@@ -0,0 +1,163 @@
+package model;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Reads and writes pixels in a raw binary format, and hashes them, for the on-disk result cache.
+ * No compression or color conversion is involved, so an image is read back as fast as its bytes
+ * come off the disk.
+ *
+ * <p>The layout is the magic "PXL1", the width and height as big-endian ints, a byte holding the
+ * number of bits per channel value (8, or 16 if any value does not fit in a byte), and then the
+ * red, green and blue values of every pixel, row by row.
+ */
+public class PixelFile {
+
+  private static final byte[] MAGIC = "PXL1".getBytes(StandardCharsets.US_ASCII);
+  private static final Integer[] VALUES = new Integer[256];
+
+  static {
+    for (int v = 0; v < VALUES.length; v++) {
+      VALUES[v] = v;
+    }
+  }
+
+  private PixelFile() {
+  }
+
+  /**
+   * Writes an image.
+   *
+   * @param image The image to write.
+   * @param out   The stream to write to.
+   * @throws IOException If the stream cannot be written.
+   */
+  public static void write(Pixel image, OutputStream out) throws IOException {
+    List<Integer>[][] pixels = image.getPixel();
+    int rows = pixels.length;
+    int columns = pixels[0].length;
+    int bits = 8;
+    for (List<Integer>[] row : pixels) {
+      for (List<Integer> pixel : row) {
+        for (int c = 0; c < 3; c++) {
+          if (pixel.get(c) < 0 || pixel.get(c) > 255) {
+            bits = 16;
+          }
+        }
+      }
+    }
+    DataOutputStream data = new DataOutputStream(out);
+    data.write(MAGIC);
+    data.writeInt(columns);
+    data.writeInt(rows);
+    data.writeByte(bits);
+    int bytes = bits / 8;
+    byte[] line = new byte[columns * 3 * bytes];
+    for (List<Integer>[] row : pixels) {
+      int k = 0;
+      for (List<Integer> pixel : row) {
+        for (int c = 0; c < 3; c++) {
+          int value = pixel.get(c);
+          if (bytes == 2) {
+            line[k++] = (byte) (value >> 8);
+          }
+          line[k++] = (byte) value;
+        }
+      }
+      data.write(line);
+    }
+    data.flush();
+  }
+
+  /**
+   * Reads an image.
+   *
+   * @param in   The stream to read from.
+   * @param pool The pool to take the buffer of the image from.
+   * @return The image, or null if the stream does not hold an image in this format.
+   * @throws IOException If the stream cannot be read or ends early.
+   */
+  public static PixelImplementation read(InputStream in, PixelBufferPool pool)
+      throws IOException {
+    DataInputStream data = new DataInputStream(in);
+    byte[] magic = new byte[MAGIC.length];
+    data.readFully(magic);
+    if (!Arrays.equals(magic, MAGIC)) {
+      return null;
+    }
+    int columns = data.readInt();
+    int rows = data.readInt();
+    int bytes = data.readUnsignedByte() / 8;
+    List<Integer>[][] pixels = pool.acquire(rows, columns);
+    byte[] line = new byte[columns * 3 * bytes];
+    for (int i = 0; i < rows; i++) {
+      data.readFully(line);
+      int k = 0;
+      for (int j = 0; j < columns; j++) {
+        Integer[] rgb = new Integer[3];
+        for (int c = 0; c < 3; c++) {
+          int value = line[k++] & 0xff;
+          if (bytes == 2) {
+            value = (short) (value << 8 | line[k++] & 0xff);
+          }
+          rgb[c] = boxed(value);
+        }
+        pixels[i][j] = Arrays.asList(rgb);
+      }
+    }
+    return new PixelImplementation(pixels);
+  }
+
+  /**
+   * Boxes a channel value, sharing one instance per value in the range of a byte.
+   *
+   * @param value The channel value.
+   * @return The boxed value.
+   */
+  static Integer boxed(int value) {
+    return value >= 0 && value < VALUES.length ? VALUES[value] : Integer.valueOf(value);
+  }
+
+  /**
+   * Hashes the size and pixel values of an image.
+   *
+   * @param image The image to hash.
+   * @return The SHA-256 of the image as 64 hexadecimal digits.
+   */
+  public static String hash(Pixel image) {
+    MessageDigest digest;
+    try {
+      digest = MessageDigest.getInstance("SHA-256");
+    } catch (NoSuchAlgorithmException e) {
+      throw new IllegalStateException(e);
+    }
+    List<Integer>[][] pixels = image.getPixel();
+    byte[] line = new byte[pixels[0].length * 6];
+    for (List<Integer>[] row : pixels) {
+      int k = 0;
+      for (List<Integer> pixel : row) {
+        for (int c = 0; c < 3; c++) {
+          int value = pixel.get(c);
+          line[k++] = (byte) (value >> 8);
+          line[k++] = (byte) value;
+        }
+      }
+      digest.update(line, 0, k);
+    }
+    digest.update((pixels.length + "x" + pixels[0].length).getBytes(StandardCharsets.US_ASCII));
+    StringBuilder hex = new StringBuilder();
+    for (byte b : digest.digest()) {
+      hex.append(Character.forDigit(b >> 4 & 0xf, 16)).append(Character.forDigit(b & 0xf, 16));
+    }
+    return hex.toString();
+  }
+}
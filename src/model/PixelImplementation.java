@@ -8,6 +8,8 @@ import java.util.List;
 public class PixelImplementation implements Pixel {
 
   private final List<Integer>[][] pixel;
+  private volatile int[] channelPeaks;
+  private volatile WaveletCoefficients coefficients;
 
   /**
    * Constructs a PixelImplementation object with a two-dimensional array
@@ -28,4 +30,42 @@ public class PixelImplementation implements Pixel {
   public List<Integer>[][] getPixel() {
     return this.pixel;
   }
+
+  /**
+   * Retrieves the histogram peak positions of the red, green and blue channels cached with this
+   * image by a previous color correction.
+   *
+   * @return The cached peak positions, or null if they have not been computed yet.
+   */
+  int[] getChannelPeaks() {
+    return this.channelPeaks;
+  }
+
+  /**
+   * Caches the histogram peak positions of the red, green and blue channels with this image.
+   *
+   * @param channelPeaks The peak position of each channel.
+   */
+  void setChannelPeaks(int[] channelPeaks) {
+    this.channelPeaks = channelPeaks;
+  }
+
+  /**
+   * Retrieves the wavelet coefficients this image was decoded from.
+   *
+   * @return The coefficients, or null if the image is not the result of a compression.
+   */
+  WaveletCoefficients getCoefficients() {
+    return this.coefficients;
+  }
+
+  /**
+   * Keeps the wavelet coefficients this image was decoded from, so that saving it in the wavelet
+   * format does not transform it again.
+   *
+   * @param coefficients The quantized coefficients of the image.
+   */
+  void setCoefficients(WaveletCoefficients coefficients) {
+    this.coefficients = coefficients;
+  }
 }
@@ -0,0 +1,113 @@
+package model;
+
+import java.io.BufferedInputStream;
+import java.io.Closeable;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Reads a plain PPM file row by row as it is tokenized, instead of reading the whole file first.
+ * Every value of a row must be scanned, but only the pixels a caller keeps are boxed into lists,
+ * so a crop or a subsampled read allocates in proportion to what it keeps.
+ */
+class PpmReader implements Closeable {
+
+  private final InputStream in;
+  private int width;
+  private int height;
+
+  private PpmReader(InputStream in) {
+    this.in = in;
+  }
+
+  /**
+   * Opens a PPM file and reads its header.
+   *
+   * @param file The file.
+   * @return The reader positioned at the first row, or null if the file is not a plain PPM file.
+   * @throws IOException If the file cannot be read.
+   */
+  static PpmReader open(File file) throws IOException {
+    PpmReader reader = new PpmReader(new BufferedInputStream(new FileInputStream(file)));
+    try {
+      if (reader.in.read() != 'P' || reader.in.read() != '3') {
+        reader.close();
+        return null;
+      }
+      reader.width = reader.number();
+      reader.height = reader.number();
+      reader.number();
+      return reader;
+    } catch (IOException | RuntimeException e) {
+      reader.close();
+      throw e;
+    }
+  }
+
+  int width() {
+    return width;
+  }
+
+  int height() {
+    return height;
+  }
+
+  /**
+   * Reads the next row, keeping every step-th pixel starting at a column.
+   *
+   * @param into The array the kept pixels are stored into from index 0, or null to skip the row.
+   *             Pixels beyond its length are not kept.
+   * @param from The column of the first kept pixel.
+   * @param step The distance between kept pixels.
+   * @throws IOException If the file cannot be read or ends early.
+   */
+  void readRow(List<Integer>[] into, int from, int step) throws IOException {
+    int kept = 0;
+    for (int j = 0; j < width; j++) {
+      int red = number();
+      int green = number();
+      int blue = number();
+      if (into != null && j >= from && (j - from) % step == 0 && kept < into.length) {
+        into[kept++] = Arrays.asList(
+            PixelFile.boxed(red), PixelFile.boxed(green), PixelFile.boxed(blue));
+      }
+    }
+  }
+
+  private int number() throws IOException {
+    int c = in.read();
+    while (c == '#' || Character.isWhitespace(c)) {
+      if (c == '#') {
+        while (c != '\n' && c != -1) {
+          c = in.read();
+        }
+      }
+      c = in.read();
+    }
+    if (c == -1) {
+      throw new IOException("PPM file ends early");
+    }
+    boolean negative = c == '-';
+    if (negative) {
+      c = in.read();
+    }
+    int value = 0;
+    while (c != -1 && !Character.isWhitespace(c)) {
+      if (c < '0' || c > '9') {
+        throw new IOException("Invalid PPM value");
+      }
+      value = value * 10 + c - '0';
+      c = in.read();
+    }
+    return negative ? -value : value;
+  }
+
+  @Override
+  public void close() throws IOException {
+    in.close();
+  }
+}
@@ -0,0 +1,276 @@
+package model;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.IntStream;
+
+/**
+ * Resizes images with a separable filter: every row is resampled to the new width, then every
+ * column of the result to the new height. The filter weights of each output column and each
+ * output row are computed once per axis, before any pixel is read. When shrinking, the filter is
+ * stretched by the reduction factor, so every source pixel contributes to the output.
+ *
+ * <p>Both passes run on the common fork-join pool in bands of rows. The horizontal pass writes
+ * one float line per source row; the vertical pass reads those lines and writes the output
+ * pixels. A box filter whose reduction factors are both powers of two skips the weight tables and
+ * averages each block of source pixels with integer sums instead.
+ */
+public class Resampler {
+
+  /** The largest number of pixels of a resized image, 8192 by 8192. */
+  public static final long MAX_PIXELS = 8192L * 8192;
+
+  private static final int BAND_ROWS = 16;
+
+  /**
+   * The filters an image can be resized with.
+   */
+  public enum Filter {
+    /** Area average when shrinking, nearest neighbour when enlarging. */
+    BOX(0.5),
+    /** Linear interpolation between the two nearest pixels. */
+    BILINEAR(1.0),
+    /** Windowed sinc over three lobes on either side; sharpest, may ring slightly at edges. */
+    LANCZOS3(3.0);
+
+    private final double radius;
+
+    Filter(double radius) {
+      this.radius = radius;
+    }
+
+    private double weight(double x) {
+      switch (this) {
+        case BOX:
+          return x >= -0.5 && x < 0.5 ? 1.0 : 0.0;
+        case BILINEAR:
+          return Math.max(0.0, 1.0 - Math.abs(x));
+        default:
+          if (x == 0.0) {
+            return 1.0;
+          } else if (x <= -3.0 || x >= 3.0) {
+            return 0.0;
+          }
+          double px = Math.PI * x;
+          return 3.0 * Math.sin(px) * Math.sin(px / 3.0) / (px * px);
+      }
+    }
+
+    /**
+     * Finds a filter by its name in a command.
+     *
+     * @param name The name, such as lanczos3.
+     * @return The filter, or null if there is no filter of that name.
+     */
+    public static Filter of(String name) {
+      for (Filter filter : values()) {
+        if (filter.name().equalsIgnoreCase(name)) {
+          return filter;
+        }
+      }
+      return null;
+    }
+  }
+
+  /**
+   * The filter weights of every output position along one axis.
+   */
+  private static class Weights {
+    private final int[] first;
+    private final int[] count;
+    private final float[] weights;
+    private final int taps;
+
+    private Weights(int source, int target, Filter filter) {
+      double scale = (double) source / target;
+      double stretch = Math.max(1.0, scale);
+      double support = filter.radius * stretch;
+      taps = (int) Math.ceil(support) * 2 + 1;
+      first = new int[target];
+      count = new int[target];
+      weights = new float[target * taps];
+      for (int i = 0; i < target; i++) {
+        double center = (i + 0.5) * scale;
+        int from = Math.max(0, (int) Math.floor(center - support + 0.5));
+        int to = Math.min(source, (int) Math.floor(center + support + 0.5));
+        double sum = 0;
+        for (int x = from; x < to; x++) {
+          double w = filter.weight((x + 0.5 - center) / stretch);
+          weights[i * taps + x - from] = (float) w;
+          sum += w;
+        }
+        if (sum == 0) {
+          // a box enlarging by an integer factor can land exactly between two pixels
+          weights[i * taps] = 1;
+          sum = 1;
+        }
+        for (int x = 0; x < to - from; x++) {
+          weights[i * taps + x] /= (float) sum;
+        }
+        first[i] = from;
+        count[i] = to - from;
+      }
+    }
+  }
+
+  private Resampler() {
+  }
+
+  /**
+   * Computes the size of a resized image, filling in a width or height of 0 so the image keeps
+   * its aspect ratio.
+   *
+   * @param columns The width of the image.
+   * @param rows    The height of the image.
+   * @param width   The new width, or 0 to keep the aspect ratio.
+   * @param height  The new height, or 0 to keep the aspect ratio.
+   * @return The new width and height.
+   */
+  public static int[] targetSize(int columns, int rows, int width, int height) {
+    if (width == 0) {
+      width = (int) Math.min(Integer.MAX_VALUE,
+          Math.max(1, Math.round((double) columns * height / rows)));
+    } else if (height == 0) {
+      height = (int) Math.min(Integer.MAX_VALUE,
+          Math.max(1, Math.round((double) rows * width / columns)));
+    }
+    return new int[] {width, height};
+  }
+
+  /**
+   * Resizes an image.
+   *
+   * @param image  The image to resize.
+   * @param width  The new width.
+   * @param height The new height.
+   * @param filter The filter to resample with.
+   * @param output The buffer of the new size to store the pixels of the resized image into.
+   * @return The resized image, holding the output buffer.
+   * @throws IllegalArgumentException If the resized image would have more than
+   *     {@link #MAX_PIXELS} pixels.
+   */
+  public static Pixel resize(Pixel image, int width, int height, Filter filter,
+      List<Integer>[][] output) {
+    checkSize(width, height);
+    List<Integer>[][] source = image.getPixel();
+    int rows = source.length;
+    int columns = source[0].length;
+    if (filter == Filter.BOX && columns % width == 0 && rows % height == 0
+        && Integer.bitCount(columns / width) == 1 && Integer.bitCount(rows / height) == 1) {
+      boxDownsample(source, columns / width, rows / height, output);
+      return new PixelImplementation(output);
+    }
+
+    Weights across = new Weights(columns, width, filter);
+    Weights down = new Weights(rows, height, filter);
+    float[][] lines = new float[rows][];
+    IntStream.range(0, (rows + BAND_ROWS - 1) / BAND_ROWS).parallel().forEach(band -> {
+      int[] values = new int[columns * 3];
+      int end = Math.min(rows, (band + 1) * BAND_ROWS);
+      for (int i = band * BAND_ROWS; i < end; i++) {
+        read(source[i], values);
+        float[] line = new float[width * 3];
+        for (int j = 0; j < width; j++) {
+          float red = 0;
+          float green = 0;
+          float blue = 0;
+          int offset = j * across.taps;
+          int x = across.first[j] * 3;
+          for (int t = 0; t < across.count[j]; t++, x += 3) {
+            float w = across.weights[offset + t];
+            red += w * values[x];
+            green += w * values[x + 1];
+            blue += w * values[x + 2];
+          }
+          line[j * 3] = red;
+          line[j * 3 + 1] = green;
+          line[j * 3 + 2] = blue;
+        }
+        lines[i] = line;
+      }
+    });
+
+    IntStream.range(0, (height + BAND_ROWS - 1) / BAND_ROWS).parallel().forEach(band -> {
+      float[] sums = new float[width * 3];
+      int end = Math.min(height, (band + 1) * BAND_ROWS);
+      for (int i = band * BAND_ROWS; i < end; i++) {
+        Arrays.fill(sums, 0);
+        int offset = i * down.taps;
+        for (int t = 0; t < down.count[i]; t++) {
+          float w = down.weights[offset + t];
+          float[] line = lines[down.first[i] + t];
+          for (int k = 0; k < sums.length; k++) {
+            sums[k] += w * line[k];
+          }
+        }
+        for (int j = 0; j < width; j++) {
+          output[i][j] = Arrays.asList(channel(sums[j * 3]), channel(sums[j * 3 + 1]),
+              channel(sums[j * 3 + 2]));
+        }
+      }
+    });
+    return new PixelImplementation(output);
+  }
+
+  /**
+   * Averages every block of factorX by factorY source pixels, both powers of two, with integer
+   * sums and rounding.
+   */
+  private static void boxDownsample(List<Integer>[][] source, int factorX, int factorY,
+      List<Integer>[][] output) {
+    int height = output.length;
+    int width = output[0].length;
+    int columns = source[0].length;
+    int shift = Integer.numberOfTrailingZeros(factorX) + Integer.numberOfTrailingZeros(factorY);
+    int half = (1 << shift) >> 1;
+    IntStream.range(0, (height + BAND_ROWS - 1) / BAND_ROWS).parallel().forEach(band -> {
+      int[] values = new int[columns * 3];
+      int[] sums = new int[width * 3];
+      int end = Math.min(height, (band + 1) * BAND_ROWS);
+      for (int i = band * BAND_ROWS; i < end; i++) {
+        Arrays.fill(sums, 0);
+        for (int r = i * factorY; r < (i + 1) * factorY; r++) {
+          read(source[r], values);
+          for (int x = 0; x < columns; x++) {
+            int k = x / factorX * 3;
+            sums[k] += values[x * 3];
+            sums[k + 1] += values[x * 3 + 1];
+            sums[k + 2] += values[x * 3 + 2];
+          }
+        }
+        for (int j = 0; j < width; j++) {
+          output[i][j] = Arrays.asList(PixelFile.boxed((sums[j * 3] + half) >> shift),
+              PixelFile.boxed((sums[j * 3 + 1] + half) >> shift),
+              PixelFile.boxed((sums[j * 3 + 2] + half) >> shift));
+        }
+      }
+    });
+  }
+
+  /**
+   * Rejects a resized image of more than {@link #MAX_PIXELS} pixels before anything is allocated.
+   *
+   * @param width  The new width.
+   * @param height The new height.
+   * @throws IllegalArgumentException If the image would be too large.
+   */
+  public static void checkSize(int width, int height) {
+    if ((long) width * height > MAX_PIXELS) {
+      throw new IllegalArgumentException("The resized image would have more than " + MAX_PIXELS
+          + " pixels");
+    }
+  }
+
+  private static void read(List<Integer>[] row, int[] values) {
+    for (int j = 0; j < row.length; j++) {
+      List<Integer> pixel = row[j];
+      values[j * 3] = pixel.get(0);
+      values[j * 3 + 1] = pixel.get(1);
+      values[j * 3 + 2] = pixel.get(2);
+    }
+  }
+
+  private static Integer channel(float value) {
+    return PixelFile.boxed(Math.min(255, Math.max(0, Math.round(value))));
+  }
+}
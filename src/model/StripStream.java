@@ -0,0 +1,325 @@
+package model;
+
+import java.awt.Rectangle;
+import java.awt.image.BufferedImage;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReadParam;
+import javax.imageio.ImageReader;
+import javax.imageio.stream.ImageInputStream;
+
+/**
+ * Applies one point operation or small filter to an image file and writes the result to a PPM
+ * file strip by strip, so the whole image is never in memory. The strips are run through the
+ * same {@link ImageUtil} kernels as whole images; a filter strip is read with as many extra rows
+ * above and below as the filter reaches, and only its middle rows are written, so the output is
+ * the same as filtering the whole image.
+ *
+ * <p>PPM input is tokenized as it is read. Other formats are decoded through an
+ * {@link ImageReader} one band of rows at a time using source regions. The PNG and JPEG readers
+ * decode from the top of the image for every region, so their bands are much taller than a strip
+ * to keep that repeated work small; BMP bands are read directly.
+ */
+public class StripStream {
+
+  /** The number of pixels in one strip of decoded pixel lists, about 8 MB. */
+  private static final int STRIP_PIXELS = 1 << 16;
+
+  /** The number of pixels in one band decoded by an image reader, about 16 MB. */
+  private static final int BAND_PIXELS = 1 << 22;
+
+  /**
+   * An image operation applied to a strip of rows.
+   */
+  private interface Kernel {
+    Pixel apply(ImageUtil util, Pixel strip, int width, int height) throws IOException;
+  }
+
+  private final Kernel kernel;
+  private final int halo;
+
+  private StripStream(Kernel kernel, int halo) {
+    this.kernel = kernel;
+    this.halo = halo;
+  }
+
+  /**
+   * Creates a stream that brightens or darkens an image.
+   *
+   * @param value The value added to every channel.
+   * @return The stream.
+   */
+  public static StripStream brighten(int value) {
+    return new StripStream((util, strip, width, height) ->
+        util.brightDark(value, width, height, strip), 0);
+  }
+
+  /**
+   * Creates a stream that converts an image to greyscale.
+   *
+   * @param component The component the grey value is taken from ("Red", "Green", "Blue",
+   *                  "Value", "Intensity" or "Luma").
+   * @return The stream.
+   */
+  public static StripStream greyscale(String component) {
+    return new StripStream((util, strip, width, height) ->
+        util.greyscaleImg(component, width, height, strip), 0);
+  }
+
+  /**
+   * Creates a stream that applies the sepia tone to an image.
+   *
+   * @return The stream.
+   */
+  public static StripStream sepia() {
+    return new StripStream((util, strip, width, height) -> util.filterMultiply(
+        ImageModelImplementation.SEPIAFILTER, strip, width, height, 100), 0);
+  }
+
+  /**
+   * Creates a stream that adjusts the levels of an image.
+   *
+   * @param b The black point.
+   * @param m The mid point.
+   * @param w The white point.
+   * @return The stream.
+   */
+  public static StripStream levels(int b, int m, int w) {
+    return new StripStream((util, strip, width, height) ->
+        util.levelAdjustImg(b, m, w, 0.0, strip.getPixel()), 0);
+  }
+
+  /**
+   * Creates a stream that blurs an image.
+   *
+   * @return The stream.
+   */
+  public static StripStream blur() {
+    return filter(ImageModelImplementation.BLURFILTER);
+  }
+
+  /**
+   * Creates a stream that sharpens an image.
+   *
+   * @return The stream.
+   */
+  public static StripStream sharpen() {
+    return filter(ImageModelImplementation.SHARPERFILTER);
+  }
+
+  private static StripStream filter(double[][] matrix) {
+    return new StripStream((util, strip, width, height) ->
+        util.filter(strip, matrix, width, height, 100), matrix.length / 2);
+  }
+
+  /**
+   * Streams an image file through the operation into a PPM file.
+   *
+   * @param input  The PPM, PNG, JPEG or BMP file to read.
+   * @param output The PPM file to write.
+   * @return false if the input is not a valid image, in which case nothing is written.
+   * @throws IOException If a file cannot be read or written.
+   */
+  public boolean run(File input, File output) throws IOException {
+    try (RowSource source = input.getName().endsWith(".ppm")
+        ? PpmSource.open(input) : ReaderSource.open(input)) {
+      if (source == null || source.width() <= 0 || source.height() <= 0) {
+        return false;
+      }
+      int width = source.width();
+      int height = source.height();
+      int stripRows = Math.max(1, STRIP_PIXELS / width);
+      ImageUtil util = new ImageUtil();
+      List<List<Integer>[]> window = new ArrayList<>();
+      int first = 0;
+      try (PpmSink sink = new PpmSink(output, width, height)) {
+        for (int y = 0; y < height; y += stripRows) {
+          int end = Math.min(height, y + stripRows);
+          while (first + window.size() < Math.min(height, end + halo)) {
+            window.add(source.next());
+          }
+          int from = Math.max(0, y - halo);
+          window.subList(0, from - first).clear();
+          first = from;
+          List<Integer>[][] rows = window.toArray(PixelBufferPool.allocate(window.size(), 0));
+          List<Integer>[][] result = kernel.apply(util, new PixelImplementation(rows),
+              width, rows.length).getPixel();
+          for (int r = y - first; r < end - first; r++) {
+            sink.write(result[r]);
+          }
+        }
+      }
+    }
+    return true;
+  }
+
+  /**
+   * The rows of an image being decoded, read from top to bottom.
+   */
+  private interface RowSource extends Closeable {
+    int width();
+
+    int height();
+
+    List<Integer>[] next() throws IOException;
+  }
+
+  /**
+   * Reads the rows of a plain PPM file.
+   */
+  private static class PpmSource implements RowSource {
+    private final PpmReader ppm;
+
+    private PpmSource(PpmReader ppm) {
+      this.ppm = ppm;
+    }
+
+    static PpmSource open(File file) throws IOException {
+      PpmReader ppm = PpmReader.open(file);
+      return ppm == null ? null : new PpmSource(ppm);
+    }
+
+    @Override
+    public int width() {
+      return ppm.width();
+    }
+
+    @Override
+    public int height() {
+      return ppm.height();
+    }
+
+    @Override
+    public List<Integer>[] next() throws IOException {
+      List<Integer>[] row = PixelBufferPool.allocate(1, ppm.width())[0];
+      ppm.readRow(row, 0, 1);
+      return row;
+    }
+
+    @Override
+    public void close() throws IOException {
+      ppm.close();
+    }
+  }
+
+  /**
+   * Reads the rows of an image through an image reader, one band of rows at a time.
+   */
+  private static class ReaderSource implements RowSource {
+    private final ImageInputStream in;
+    private final ImageReader reader;
+    private final int width;
+    private final int height;
+    private final int bandRows;
+    private final int[] line;
+    private BufferedImage band;
+    private int bandStart;
+    private int row;
+
+    private ReaderSource(ImageInputStream in, ImageReader reader) throws IOException {
+      this.in = in;
+      this.reader = reader;
+      this.width = reader.getWidth(0);
+      this.height = reader.getHeight(0);
+      this.bandRows = Math.max(1, BAND_PIXELS / width);
+      this.line = new int[width];
+    }
+
+    static ReaderSource open(File file) throws IOException {
+      ImageInputStream in = ImageIO.createImageInputStream(file);
+      if (in == null) {
+        return null;
+      }
+      Iterator<ImageReader> readers = ImageIO.getImageReaders(in);
+      if (!readers.hasNext()) {
+        in.close();
+        return null;
+      }
+      ImageReader reader = readers.next();
+      try {
+        reader.setInput(in);
+        return new ReaderSource(in, reader);
+      } catch (IOException | RuntimeException e) {
+        reader.dispose();
+        in.close();
+        throw e;
+      }
+    }
+
+    @Override
+    public int width() {
+      return width;
+    }
+
+    @Override
+    public int height() {
+      return height;
+    }
+
+    @Override
+    public List<Integer>[] next() throws IOException {
+      if (band == null || row == bandStart + band.getHeight()) {
+        ImageReadParam param = reader.getDefaultReadParam();
+        param.setSourceRegion(new Rectangle(0, row, width, Math.min(bandRows, height - row)));
+        band = null; // let the previous band be collected while the next one is decoded
+        band = reader.read(0, param);
+        bandStart = row;
+      }
+      band.getRGB(0, row - bandStart, width, 1, line, 0, width);
+      row++;
+      List<Integer>[] pixels = PixelBufferPool.allocate(1, width)[0];
+      for (int j = 0; j < width; j++) {
+        int rgb = line[j];
+        pixels[j] = Arrays.asList(PixelFile.boxed((rgb >> 16) & 0xff),
+            PixelFile.boxed((rgb >> 8) & 0xff), PixelFile.boxed(rgb & 0xff));
+      }
+      return pixels;
+    }
+
+    @Override
+    public void close() throws IOException {
+      reader.dispose();
+      in.close();
+    }
+  }
+
+  /**
+   * Writes the rows of a plain PPM file as they are produced, in the layout of
+   * {@link ImageUtil#ppmCreate}.
+   */
+  private static class PpmSink implements Closeable {
+    private final OutputStream out;
+    private final StringBuilder text = new StringBuilder();
+
+    PpmSink(File file, int width, int height) throws IOException {
+      this.out = new BufferedOutputStream(new FileOutputStream(file));
+      text.append("P3\n").append(width).append(' ').append(height).append("\n255\n");
+    }
+
+    void write(List<Integer>[] row) throws IOException {
+      for (List<Integer> pixel : row) {
+        for (int k : pixel) {
+          text.append(k).append('\n');
+        }
+      }
+      text.append('\n');
+      out.write(text.toString().getBytes(StandardCharsets.US_ASCII));
+      text.setLength(0);
+    }
+
+    @Override
+    public void close() throws IOException {
+      out.close();
+    }
+  }
+}
@@ -0,0 +1,108 @@
+package model;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+/**
+ * Compresses an image tile by tile. Every tile is read from the source pixels, transformed,
+ * thresholded, quantized and inverted on its own and written straight into the output, so the
+ * transform only ever holds the channels of the tiles being worked on instead of the whole image.
+ * Tiles are compressed in parallel on the common fork-join pool.
+ *
+ * <p>All tiles share one threshold, picked from the coefficients of a sample of evenly spaced
+ * tiles in a first pass, so the percentage means the same as for the whole-image compression. An
+ * image that fits in a single tile is compressed exactly as by {@link CompressionHelper}.
+ */
+public class TiledCompression {
+
+  /** The side of a tile used by the compress command. */
+  public static final int DEFAULT_TILE_SIZE = 512;
+
+  private static final int SAMPLE_TILES = 8;
+
+  private final int tileSize;
+
+  /**
+   * Constructs a tiled compression.
+   *
+   * @param tileSize The side of a tile in pixels; tiles at the right and bottom edge are smaller.
+   */
+  public TiledCompression(int tileSize) {
+    this.tileSize = tileSize;
+  }
+
+  /**
+   * Compresses an image.
+   *
+   * @param source     The image to compress.
+   * @param percentage The percentage of distinct coefficient magnitudes to set to 0.
+   * @param buffer     A buffer of the size of the image, whose entries are all overwritten.
+   * @return The compressed image.
+   */
+  public PixelImplementation compress(Pixel source, double percentage, List<Integer>[][] buffer) {
+    int rows = source.getPixel().length;
+    int columns = source.getPixel()[0].length;
+    int tileColumns = (columns + tileSize - 1) / tileSize;
+    int tiles = tileColumns * ((rows + tileSize - 1) / tileSize);
+
+    int samples = Math.min(tiles, SAMPLE_TILES);
+    List<float[]> sampled = IntStream.range(0, samples).parallel()
+        .mapToObj(k -> transformTile(source, k * tiles / samples, tileColumns))
+        .flatMap(Arrays::stream)
+        .collect(Collectors.toList());
+    double threshold =
+        CompressionHelper.thresholdAt(CompressionHelper.distinctMagnitudes(sampled), percentage);
+
+    IntStream.range(0, tiles).parallel()
+        .forEach(tile -> compressTile(source, tile, tileColumns, threshold, buffer));
+    return new PixelImplementation(buffer);
+  }
+
+  private float[][] transformTile(Pixel source, int tile, int tileColumns) {
+    List<Integer>[][] pixels = source.getPixel();
+    int top = tile / tileColumns * tileSize;
+    int left = tile % tileColumns * tileSize;
+    int height = Math.min(tileSize, pixels.length - top);
+    int width = Math.min(tileSize, pixels[0].length - left);
+    float[][] planes = new float[3][height * width];
+    for (int i = 0; i < height; i++) {
+      for (int j = 0; j < width; j++) {
+        List<Integer> pixel = pixels[top + i][left + j];
+        for (int c = 0; c < 3; c++) {
+          planes[c][i * width + j] = pixel.get(c);
+        }
+      }
+    }
+    HaarTransform transform = new HaarTransform(height, width);
+    for (float[] plane : planes) {
+      transform.forward(plane);
+    }
+    return planes;
+  }
+
+  private void compressTile(
+      Pixel source, int tile, int tileColumns, double threshold, List<Integer>[][] buffer) {
+    float[][] planes = transformTile(source, tile, tileColumns);
+    int top = tile / tileColumns * tileSize;
+    int left = tile % tileColumns * tileSize;
+    int height = Math.min(tileSize, buffer.length - top);
+    int width = Math.min(tileSize, buffer[0].length - left);
+    float step = WaveletCoefficients.DEFAULT_STEP;
+    HaarTransform transform = new HaarTransform(height, width);
+    for (float[] plane : planes) {
+      for (int k = 0; k < plane.length; k++) {
+        plane[k] = Math.abs(plane[k]) <= threshold ? 0 : Math.round(plane[k] / step) * step;
+      }
+      transform.inverse(plane);
+    }
+    for (int i = 0; i < height; i++) {
+      for (int j = 0; j < width; j++) {
+        int k = i * width + j;
+        buffer[top + i][left + j] = Arrays.asList(CompressionHelper.clamp(planes[0][k]),
+            CompressionHelper.clamp(planes[1][k]), CompressionHelper.clamp(planes[2][k]));
+      }
+    }
+  }
+}
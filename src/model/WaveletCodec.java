@@ -0,0 +1,491 @@
+package model;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Arrays;
+import java.util.PriorityQueue;
+
+/**
+ * Reads and writes images in the wavelet format. The file stores the quantized Haar coefficients
+ * of an image instead of its pixels, so an image compressed with a high threshold, which has few
+ * non-zero coefficients, takes little space on disk.
+ *
+ * <p>The coefficients are grouped in rings, from the coarsest scale to the finest. Ring 0 is the
+ * single coefficient at the top left of each channel and ring r adds the coefficients that enlarge
+ * the top-left block of scale {@code rings - 1 - r} to the block of the next finer scale. Within a
+ * ring every channel is coded in row order as runs of zeros followed by a non-zero value; each
+ * (run, size) pair is a symbol of one canonical Huffman code shared by the file, followed by the
+ * bits of the value. Rings are byte-aligned and their lengths are stored up front, so a reader can
+ * stop after the coarse rings and show a reduced preview of the image.
+ *
+ * <p>Lossless files hold the coefficients of the {@link IntegerHaarTransform}, whose averages are
+ * not scaled, so their reduced previews need no gain correction.
+ *
+ * <p>Layout: the magic {@code WVL1}, a version and a transform byte (0 for Haar, 1 for integer
+ * Haar), the width and height, the quantization step, the Huffman code lengths, the ring count
+ * and the byte length of every ring, followed by the rings.
+ */
+public class WaveletCodec {
+
+  /** The file extension of the wavelet format. */
+  public static final String EXTENSION = "wvl";
+
+  private static final byte[] MAGIC = {'W', 'V', 'L', '1'};
+  private static final int VERSION = 1;
+  private static final int HAAR = 0;
+  private static final int INTEGER_HAAR = 1;
+  private static final int CHANNELS = 3;
+  /** The estimated heap size of one decoded pixel: its coefficients, list and channel values. */
+  private static final long BYTES_PER_PIXEL = CHANNELS * Integer.BYTES + 128;
+
+  private static final int MAX_CODE_LENGTH = 15;
+  private static final int SIZE_BITS = 5;
+  private static final int SYMBOLS = 16 << SIZE_BITS;
+  private static final int END_OF_CHANNEL = 0;
+  private static final int ZERO_RUN = 15 << SIZE_BITS;
+
+  /**
+   * Encodes the coefficients of an image in the wavelet format.
+   *
+   * @param coefficients The quantized coefficients of the image.
+   * @return The encoded file contents.
+   * @throws IOException If the coefficients cannot be written.
+   */
+  public static byte[] encode(WaveletCoefficients coefficients) throws IOException {
+    int rows = coefficients.getRows();
+    int columns = coefficients.getColumns();
+    int rings = ringCount(rows, columns);
+
+    int[] frequencies = new int[SYMBOLS];
+    for (int ring = 0; ring < rings; ring++) {
+      codeRing(coefficients, ring, rings, frequencies, null, null, null);
+    }
+    int[] lengths = codeLengths(frequencies);
+    int[] codes = canonicalCodes(lengths);
+
+    byte[][] segments = new byte[rings][];
+    for (int ring = 0; ring < rings; ring++) {
+      BitWriter writer = new BitWriter();
+      codeRing(coefficients, ring, rings, null, writer, codes, lengths);
+      segments[ring] = writer.toByteArray();
+    }
+
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    DataOutputStream out = new DataOutputStream(bytes);
+    out.write(MAGIC);
+    out.writeByte(VERSION);
+    out.writeByte(coefficients.isLossless() ? INTEGER_HAAR : HAAR);
+    out.writeInt(columns);
+    out.writeInt(rows);
+    out.writeFloat(coefficients.getStep());
+    int used = 0;
+    for (int length : lengths) {
+      used += length > 0 ? 1 : 0;
+    }
+    out.writeShort(used);
+    for (int symbol = 0; symbol < SYMBOLS; symbol++) {
+      if (lengths[symbol] > 0) {
+        out.writeShort(symbol);
+        out.writeByte(lengths[symbol]);
+      }
+    }
+    out.writeShort(rings);
+    for (byte[] segment : segments) {
+      out.writeInt(segment.length);
+    }
+    for (byte[] segment : segments) {
+      out.write(segment);
+    }
+    out.flush();
+    return bytes.toByteArray();
+  }
+
+  /**
+   * Decodes an image in the wavelet format.
+   *
+   * @param in The stream positioned at the start of the file.
+   * @return The quantized coefficients of the image, or null if the stream does not hold a
+   *     wavelet image or holds a truncated or corrupt one.
+   * @throws IOException If the stream cannot be read.
+   */
+  public static WaveletCoefficients decode(InputStream in) throws IOException {
+    return decode(in, 0);
+  }
+
+  /**
+   * Decodes a reduced image from a file in the wavelet format. Only the rings up to the requested
+   * scale are read; the top-left block they complete is the transform of the image averaged over
+   * blocks of 2^scale by 2^scale pixels, scaled by a power of the square root of two. The
+   * returned coefficients are that block, with the scaling folded into their quantization step.
+   *
+   * @param in    The stream positioned at the start of the file.
+   * @param scale The number of finest levels to skip; 0 decodes the full image.
+   * @return The quantized coefficients of the reduced image, or null if the stream does not hold
+   *     a wavelet image, holds a truncated or corrupt one, or declares an image too large to
+   *     decode in the memory available.
+   * @throws IOException If the stream cannot be read.
+   */
+  public static WaveletCoefficients decode(InputStream in, int scale) throws IOException {
+    try {
+      return read(new DataInputStream(in), scale);
+    } catch (EOFException | CorruptFileException e) {
+      return null;
+    }
+  }
+
+  private static WaveletCoefficients read(DataInputStream data, int scale) throws IOException {
+    byte[] magic = new byte[MAGIC.length];
+    data.readFully(magic);
+    if (!Arrays.equals(magic, MAGIC) || data.readUnsignedByte() != VERSION) {
+      return null;
+    }
+    int transform = data.readUnsignedByte();
+    if (transform != HAAR && transform != INTEGER_HAAR) {
+      return null;
+    }
+    int columns = data.readInt();
+    int rows = data.readInt();
+    float step = data.readFloat();
+    if (rows <= 0 || columns <= 0 || (long) rows * columns > Integer.MAX_VALUE / CHANNELS) {
+      return null;
+    }
+    int[] lengths = new int[SYMBOLS];
+    int used = data.readUnsignedShort();
+    for (int k = 0; k < used; k++) {
+      int symbol = data.readUnsignedShort();
+      int length = data.readUnsignedByte();
+      if (symbol >= SYMBOLS || length == 0 || length > MAX_CODE_LENGTH) {
+        return null;
+      }
+      lengths[symbol] = length;
+    }
+    int rings = data.readUnsignedShort();
+    if (rings != ringCount(rows, columns)) {
+      return null;
+    }
+    int[] segmentLengths = new int[rings];
+    for (int ring = 0; ring < rings; ring++) {
+      segmentLengths[ring] = data.readInt();
+      if (segmentLengths[ring] < 0) {
+        return null;
+      }
+    }
+
+    int kept = Math.max(1, rings - scale);
+    int skipped = rings - kept;
+    int[] block = ringBlock(rows, columns, kept - 1, rings);
+    // a file of mostly zero coefficients is tiny whatever its size, so the declared size can only
+    // be checked against the memory the decoded channels and pixels will take
+    if ((long) block[0] * block[1] * BYTES_PER_PIXEL > Runtime.getRuntime().maxMemory()) {
+      return null;
+    }
+    HuffmanDecoder decoder = new HuffmanDecoder(lengths);
+    int[][] channels = new int[CHANNELS][block[0] * block[1]];
+    for (int ring = 0; ring < kept; ring++) {
+      // read as the bytes arrive, so a length beyond the end of a truncated file allocates nothing
+      byte[] segment = data.readNBytes(segmentLengths[ring]);
+      if (segment.length < segmentLengths[ring]) {
+        return null;
+      }
+      decodeRing(channels, block[1], rows, columns, ring, rings, new BitReader(segment), decoder);
+    }
+    if (transform == INTEGER_HAAR) {
+      return new WaveletCoefficients(block[0], block[1], step, channels, true);
+    }
+    int levels = Math.min(skipped, HaarTransform.levelCount(rows))
+        + Math.min(skipped, HaarTransform.levelCount(columns));
+    float gain = (float) Math.pow(Math.sqrt(2), levels);
+    return new WaveletCoefficients(block[0], block[1], step / gain, channels);
+  }
+
+  /**
+   * Counts the rings of an image, one per scale of the transform.
+   *
+   * @param rows    The number of rows of the image.
+   * @param columns The number of columns of the image.
+   * @return The number of rings.
+   */
+  static int ringCount(int rows, int columns) {
+    return Math.max(HaarTransform.levelCount(rows), HaarTransform.levelCount(columns)) + 1;
+  }
+
+  /**
+   * Computes the size of the top-left block that a ring completes.
+   *
+   * @param rows    The number of rows of the image.
+   * @param columns The number of columns of the image.
+   * @param ring    The ring, 0 being the coarsest.
+   * @param rings   The number of rings of the image.
+   * @return The number of rows and columns of the block.
+   */
+  static int[] ringBlock(int rows, int columns, int ring, int rings) {
+    int scale = rings - 1 - ring;
+    return new int[] {
+        HaarTransform.levelLength(rows, scale), HaarTransform.levelLength(columns, scale)};
+  }
+
+  private static void codeRing(WaveletCoefficients coefficients, int ring, int rings,
+      int[] frequencies, BitWriter writer, int[] codes, int[] lengths) {
+    int rows = coefficients.getRows();
+    int columns = coefficients.getColumns();
+    int[] block = ringBlock(rows, columns, ring, rings);
+    int[] inner = ring == 0 ? new int[2] : ringBlock(rows, columns, ring - 1, rings);
+    for (int c = 0; c < CHANNELS; c++) {
+      int[] channel = coefficients.getChannel(c);
+      int run = 0;
+      for (int i = 0; i < block[0]; i++) {
+        for (int j = i < inner[0] ? inner[1] : 0; j < block[1]; j++) {
+          int value = channel[i * columns + j];
+          if (value == 0) {
+            run++;
+            continue;
+          }
+          for (; run > 15; run -= 16) {
+            emit(ZERO_RUN, 0, 0, frequencies, writer, codes, lengths);
+          }
+          int size = 32 - Integer.numberOfLeadingZeros(Math.abs(value));
+          int bits = value > 0 ? value : value + (1 << size) - 1;
+          emit((run << SIZE_BITS) | size, bits, size, frequencies, writer, codes, lengths);
+          run = 0;
+        }
+      }
+      if (run > 0) {
+        emit(END_OF_CHANNEL, 0, 0, frequencies, writer, codes, lengths);
+      }
+    }
+    if (writer != null) {
+      writer.flush();
+    }
+  }
+
+  private static void emit(int symbol, int bits, int size,
+      int[] frequencies, BitWriter writer, int[] codes, int[] lengths) {
+    if (frequencies != null) {
+      frequencies[symbol]++;
+    } else {
+      writer.write(codes[symbol], lengths[symbol]);
+      writer.write(bits, size);
+    }
+  }
+
+  private static void decodeRing(int[][] channels, int stride, int rows, int columns, int ring,
+      int rings, BitReader reader, HuffmanDecoder decoder) throws IOException {
+    int[] block = ringBlock(rows, columns, ring, rings);
+    int[] inner = ring == 0 ? new int[2] : ringBlock(rows, columns, ring - 1, rings);
+    int[] values = new int[block[0] * block[1] - inner[0] * inner[1]];
+    for (int c = 0; c < CHANNELS; c++) {
+      Arrays.fill(values, 0);
+      int position = 0;
+      while (position < values.length) {
+        int symbol = decoder.read(reader);
+        if (symbol == END_OF_CHANNEL) {
+          break;
+        } else if (symbol == ZERO_RUN) {
+          position += 16;
+          continue;
+        }
+        position += symbol >> SIZE_BITS;
+        if (position >= values.length) {
+          throw new CorruptFileException();
+        }
+        int size = symbol & ((1 << SIZE_BITS) - 1);
+        int bits = reader.read(size);
+        values[position++] = bits >= 1 << (size - 1) ? bits : bits - (1 << size) + 1;
+      }
+      int[] channel = channels[c];
+      position = 0;
+      for (int i = 0; i < block[0]; i++) {
+        for (int j = i < inner[0] ? inner[1] : 0; j < block[1]; j++) {
+          channel[i * stride + j] = values[position++];
+        }
+      }
+    }
+  }
+
+  /**
+   * Computes Huffman code lengths of at most {@link #MAX_CODE_LENGTH} bits. If the optimal code
+   * is too deep, the frequencies are halved, which flattens the tree, until it fits.
+   */
+  private static int[] codeLengths(int[] frequencies) {
+    int[] weights = frequencies.clone();
+    while (true) {
+      int[] lengths = huffmanLengths(weights);
+      int longest = 0;
+      for (int length : lengths) {
+        longest = Math.max(longest, length);
+      }
+      if (longest <= MAX_CODE_LENGTH) {
+        return lengths;
+      }
+      for (int symbol = 0; symbol < weights.length; symbol++) {
+        if (weights[symbol] > 0) {
+          weights[symbol] = (weights[symbol] + 1) / 2;
+        }
+      }
+    }
+  }
+
+  private static int[] huffmanLengths(int[] weights) {
+    int[] parent = new int[2 * SYMBOLS];
+    PriorityQueue<long[]> queue =
+        new PriorityQueue<>((a, b) -> a[0] != b[0] ? Long.compare(a[0], b[0])
+            : Long.compare(a[1], b[1]));
+    for (int symbol = 0; symbol < SYMBOLS; symbol++) {
+      if (weights[symbol] > 0) {
+        queue.add(new long[] {weights[symbol], symbol});
+      }
+    }
+    int[] lengths = new int[SYMBOLS];
+    if (queue.size() == 1) {
+      lengths[(int) queue.poll()[1]] = 1;
+      return lengths;
+    }
+    int next = SYMBOLS;
+    while (queue.size() > 1) {
+      long[] first = queue.poll();
+      long[] second = queue.poll();
+      parent[(int) first[1]] = next;
+      parent[(int) second[1]] = next;
+      queue.add(new long[] {first[0] + second[0], next++});
+    }
+    int root = next - 1;
+    for (int symbol = 0; symbol < SYMBOLS; symbol++) {
+      if (weights[symbol] > 0) {
+        for (int node = symbol; node != root; node = parent[node]) {
+          lengths[symbol]++;
+        }
+      }
+    }
+    return lengths;
+  }
+
+  private static int[] canonicalCodes(int[] lengths) {
+    int[] codes = new int[SYMBOLS];
+    int code = 0;
+    for (int length = 1; length <= MAX_CODE_LENGTH; length++) {
+      for (int symbol = 0; symbol < SYMBOLS; symbol++) {
+        if (lengths[symbol] == length) {
+          codes[symbol] = code++;
+        }
+      }
+      code <<= 1;
+    }
+    return codes;
+  }
+
+  /**
+   * Decodes symbols of a canonical Huffman code one bit at a time.
+   */
+  private static class HuffmanDecoder {
+    private final int[] count = new int[MAX_CODE_LENGTH + 1];
+    private final int[] firstCode = new int[MAX_CODE_LENGTH + 1];
+    private final int[] firstIndex = new int[MAX_CODE_LENGTH + 1];
+    private final int[] symbols;
+
+    HuffmanDecoder(int[] lengths) {
+      int used = 0;
+      for (int length : lengths) {
+        if (length > 0) {
+          count[length]++;
+          used++;
+        }
+      }
+      symbols = new int[used];
+      int index = 0;
+      int code = 0;
+      for (int length = 1; length <= MAX_CODE_LENGTH; length++) {
+        firstCode[length] = code;
+        firstIndex[length] = index;
+        for (int symbol = 0; symbol < lengths.length; symbol++) {
+          if (lengths[symbol] == length) {
+            symbols[index++] = symbol;
+          }
+        }
+        code = (code + count[length]) << 1;
+      }
+    }
+
+    int read(BitReader reader) throws IOException {
+      int code = 0;
+      for (int length = 1; length <= MAX_CODE_LENGTH; length++) {
+        code = (code << 1) | reader.read(1);
+        if (code - firstCode[length] < count[length]) {
+          return symbols[firstIndex[length] + code - firstCode[length]];
+        }
+      }
+      throw new CorruptFileException();
+    }
+  }
+
+  /**
+   * Signals coefficients that do not fit the image their file declares.
+   */
+  private static class CorruptFileException extends IOException {
+    private static final long serialVersionUID = 1L;
+
+    CorruptFileException() {
+      super("Corrupt wavelet file");
+    }
+  }
+
+  /**
+   * Collects bits, most significant first, into bytes.
+   */
+  private static class BitWriter {
+    private final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    private int current;
+    private int filled;
+
+    void write(int bits, int size) {
+      for (int bit = size - 1; bit >= 0; bit--) {
+        current = (current << 1) | ((bits >>> bit) & 1);
+        if (++filled == 8) {
+          bytes.write(current);
+          current = 0;
+          filled = 0;
+        }
+      }
+    }
+
+    void flush() {
+      if (filled > 0) {
+        bytes.write(current << (8 - filled));
+        current = 0;
+        filled = 0;
+      }
+    }
+
+    byte[] toByteArray() {
+      return bytes.toByteArray();
+    }
+  }
+
+  /**
+   * Reads bits, most significant first, from a byte-aligned segment.
+   */
+  private static class BitReader {
+    private final byte[] data;
+    private int position;
+
+    BitReader(byte[] data) {
+      this.data = data;
+    }
+
+    int read(int size) throws EOFException {
+      int bits = 0;
+      for (int k = 0; k < size; k++) {
+        if (position >= data.length * 8) {
+          throw new EOFException("Truncated wavelet file");
+        }
+        int bit = (data[position >> 3] >> (7 - (position & 7))) & 1;
+        bits = (bits << 1) | bit;
+        position++;
+      }
+      return bits;
+    }
+  }
+}
@@ -0,0 +1,168 @@
+package model;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.IntStream;
+
+/**
+ * The quantized Haar coefficients of the three channels of an image. Compressed images keep
+ * their coefficients, so saving them in the wavelet format stores exactly the coefficients that
+ * survived the threshold instead of transforming the decompressed pixels again.
+ *
+ * <p>Each channel is stored row by row in the layout produced by {@link HaarTransform}; a
+ * coefficient value is the stored integer multiplied by the quantization step. Lossless
+ * coefficients are instead the exact output of the {@link IntegerHaarTransform}.
+ */
+public class WaveletCoefficients {
+
+  /** The quantization step used for coefficients produced by the compress command. */
+  public static final float DEFAULT_STEP = 1.0f;
+
+  private final int rows;
+  private final int columns;
+  private final float step;
+  private final int[][] channels;
+  private final boolean lossless;
+
+  /**
+   * Constructs the coefficients of an image.
+   *
+   * @param rows     The number of rows of the image.
+   * @param columns  The number of columns of the image.
+   * @param step     The quantization step of the coefficients.
+   * @param channels The quantized coefficients of the red, green and blue channels.
+   */
+  public WaveletCoefficients(int rows, int columns, float step, int[][] channels) {
+    this(rows, columns, step, channels, false);
+  }
+
+  /**
+   * Constructs the coefficients of an image, produced by either transform.
+   *
+   * @param rows     The number of rows of the image.
+   * @param columns  The number of columns of the image.
+   * @param step     The quantization step of the coefficients.
+   * @param channels The coefficients of the red, green and blue channels.
+   * @param lossless true if the coefficients come from the {@link IntegerHaarTransform}.
+   */
+  public WaveletCoefficients(
+      int rows, int columns, float step, int[][] channels, boolean lossless) {
+    this.rows = rows;
+    this.columns = columns;
+    this.step = step;
+    this.channels = channels;
+    this.lossless = lossless;
+  }
+
+  /**
+   * Transforms an image with the lossless integer transform.
+   *
+   * @param image The image to transform.
+   * @return The exact integer coefficients of the image.
+   */
+  static WaveletCoefficients lossless(Pixel image) {
+    List<Integer>[][] pixels = image.getPixel();
+    int rows = pixels.length;
+    int columns = pixels[0].length;
+    IntegerHaarTransform transform = new IntegerHaarTransform(rows, columns);
+    int[][] channels = new int[3][];
+    IntStream.range(0, 3).parallel().forEach(c -> {
+      int[] plane = new int[rows * columns];
+      for (int i = 0; i < rows; i++) {
+        for (int j = 0; j < columns; j++) {
+          plane[i * columns + j] = pixels[i][j].get(c);
+        }
+      }
+      transform.forward(plane);
+      channels[c] = plane;
+    });
+    return new WaveletCoefficients(rows, columns, 1, channels, true);
+  }
+
+  /**
+   * Retrieves the number of rows of the image.
+   *
+   * @return The number of rows.
+   */
+  public int getRows() {
+    return rows;
+  }
+
+  /**
+   * Retrieves the number of columns of the image.
+   *
+   * @return The number of columns.
+   */
+  public int getColumns() {
+    return columns;
+  }
+
+  /**
+   * Retrieves the quantization step of the coefficients.
+   *
+   * @return The quantization step.
+   */
+  public float getStep() {
+    return step;
+  }
+
+  /**
+   * Checks whether the coefficients come from the lossless integer transform.
+   *
+   * @return true for integer coefficients, false for quantized Haar coefficients.
+   */
+  public boolean isLossless() {
+    return lossless;
+  }
+
+  /**
+   * Retrieves the quantized coefficients of one channel.
+   *
+   * @param channel The channel, 0 for red, 1 for green and 2 for blue.
+   * @return The coefficients of the channel, row by row.
+   */
+  public int[] getChannel(int channel) {
+    return channels[channel];
+  }
+
+  /**
+   * Rebuilds the image from its coefficients.
+   *
+   * @param buffer A buffer of the size of the image, whose entries are all overwritten.
+   * @return The decoded image.
+   */
+  PixelImplementation reconstruct(List<Integer>[][] buffer) {
+    if (lossless) {
+      IntegerHaarTransform transform = new IntegerHaarTransform(rows, columns);
+      int[][] planes = new int[channels.length][];
+      IntStream.range(0, channels.length).parallel().forEach(c -> {
+        planes[c] = channels[c].clone();
+        transform.inverse(planes[c]);
+      });
+      IntStream.range(0, rows).parallel().forEach(i -> {
+        for (int j = 0; j < columns; j++) {
+          int k = i * columns + j;
+          buffer[i][j] = Arrays.asList(clamp(planes[0][k]), clamp(planes[1][k]),
+              clamp(planes[2][k]));
+        }
+      });
+      return new PixelImplementation(buffer);
+    }
+    HaarTransform transform = new HaarTransform(rows, columns);
+    float[][] planes = new float[channels.length][];
+    for (int c = 0; c < channels.length; c++) {
+      int[] quantized = channels[c];
+      float[] plane = new float[quantized.length];
+      for (int k = 0; k < plane.length; k++) {
+        plane[k] = quantized[k] * step;
+      }
+      transform.inverse(plane);
+      planes[c] = plane;
+    }
+    return CompressionHelper.toPixel(planes, rows, columns, buffer);
+  }
+
+  private static int clamp(int value) {
+    return Math.max(0, Math.min(255, value));
+  }
+}
@@ -0,0 +1,23 @@
+package model.events;
+
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Recorded for each phase of the Haar wavelet compression: the forward transform, threshold
+ * selection, thresholding and the inverse transform. The image described is the compressed source
+ * image.
+ */
+@Name("imageprocessing.CompressionPhase")
+@Label("Compression Phase")
+@Description("One phase of the Haar wavelet compression")
+public class CompressionPhaseEvent extends ImageEvent {
+
+  @Label("Phase")
+  public String phase;
+
+  @Label("Channel")
+  @Description("The color channel the phase worked on, or -1 for all channels")
+  public int channel = -1;
+}
@@ -0,0 +1,40 @@
+package model.events;
+
+import jdk.jfr.Category;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+
+/**
+ * Base class of the Java Flight Recorder events emitted by the image operations. It carries the
+ * name and the dimensions of the image an operation worked on, so recordings of batch runs can be
+ * related to the commands that produced them.
+ */
+@Category("Image Processing")
+public abstract class ImageEvent extends Event {
+
+  @Label("Image Name")
+  protected String imageName;
+
+  @Label("Width")
+  protected int width;
+
+  @Label("Height")
+  protected int height;
+
+  @Label("Pixel Count")
+  protected long pixelCount;
+
+  /**
+   * Sets the image the event describes.
+   *
+   * @param imageName The reference name of the image.
+   * @param width The width of the image.
+   * @param height The height of the image.
+   */
+  public void setImage(String imageName, int width, int height) {
+    this.imageName = imageName;
+    this.width = width;
+    this.height = height;
+    this.pixelCount = (long) width * height;
+  }
+}
@@ -0,0 +1,17 @@
+package model.events;
+
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Recorded when an image file is decoded and stored in the model.
+ */
+@Name("imageprocessing.Load")
+@Label("Image Load")
+@Description("Decoding an image file into the model")
+public class ImageLoadEvent extends ImageEvent {
+
+  @Label("Path")
+  public String path;
+}
@@ -0,0 +1,17 @@
+package model.events;
+
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Recorded when an image of the model is encoded and written to a file.
+ */
+@Name("imageprocessing.Save")
+@Label("Image Save")
+@Description("Encoding an image of the model into a file")
+public class ImageSaveEvent extends ImageEvent {
+
+  @Label("Path")
+  public String path;
+}
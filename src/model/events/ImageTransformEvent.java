@@ -0,0 +1,18 @@
+package model.events;
+
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Recorded for every operation that creates a new image in the model from existing ones. The image
+ * described is the image the operation produced.
+ */
+@Name("imageprocessing.Transform")
+@Label("Image Transform")
+@Description("An operation producing a new image in the model")
+public class ImageTransformEvent extends ImageEvent {
+
+  @Label("Operation")
+  public String operation;
+}
@@ -127,8 +127,8 @@ public class UIInterfaceImplementation extends JFrame implements UIInterface {
     if (!option.equals("Save File")) {
       FileNameExtensionFilter filter =
               new FileNameExtensionFilter(
-                      "JPG, JPEG, BMP, PNG, PPM Images", "jpg", "jpeg", "png",
-                      "ppm", "bmp");
+                      "JPG, JPEG, BMP, PNG, PPM, WVL Images", "jpg", "jpeg", "png",
+                      "ppm", "bmp", "wvl");
       fchooser.setFileFilter(filter);
     }
     int retvalue = fchooser.showOpenDialog(UIInterfaceImplementation.this);
@@ -0,0 +1,76 @@
+package controller;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Stream;
+import javax.imageio.ImageIO;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * This class contains unit tests for running a script on a batch of files.
+ */
+public class BatchRunnerTest {
+
+  private Path directory;
+  private Path input;
+  private Path output;
+
+  @Before
+  public void setUp() throws IOException {
+    directory = Files.createTempDirectory("batch");
+    input = directory.resolve("in");
+    output = directory.resolve("out");
+    Files.createDirectories(input.resolve("nested"));
+    for (String name : new String[] {"a.png", "b.png", "nested/c.png"}) {
+      ImageIO.write(new BufferedImage(8, 6, BufferedImage.TYPE_INT_RGB), "png",
+          input.resolve(name).toFile());
+    }
+    Files.write(input.resolve("notes.txt"), "not an image".getBytes());
+  }
+
+  @After
+  public void tearDown() throws IOException {
+    try (Stream<Path> paths = Files.walk(directory)) {
+      for (Path path : (Iterable<Path>) paths.sorted(Comparator.reverseOrder())::iterator) {
+        Files.delete(path);
+      }
+    }
+  }
+
+  @Test
+  public void testGlobMatchesFilesInItsDirectory() throws IOException {
+    assertEquals(Arrays.asList(input.resolve("a.png"), input.resolve("b.png")),
+        BatchRunner.match(input + "/*.png"));
+    assertEquals(3, BatchRunner.match(input + "/**.png").size());
+    assertEquals(0, BatchRunner.match(directory + "/missing/*.png").size());
+  }
+
+  @Test
+  public void testTemplateRunsOnEveryFile() throws IOException {
+    List<Path> files = BatchRunner.match(input + "/**.png");
+    int failures = new BatchRunner("load {input} img\n"
+        + "sepia img toned\n"
+        + "save {output}/{name}-toned.{ext} toned\n", output, 2).run(files);
+    assertEquals(0, failures);
+    for (String name : new String[] {"a", "b", "c"}) {
+      assertTrue(Files.isRegularFile(output.resolve(name + "-toned.png")));
+    }
+  }
+
+  @Test
+  public void testFailedFilesAreCounted() throws IOException {
+    List<Path> files = BatchRunner.match(input + "/*.{png,txt}");
+    int failures = new BatchRunner("load {input} img\n", output, 1).run(files);
+    assertEquals(1, failures);
+  }
+}
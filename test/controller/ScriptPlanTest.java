@@ -0,0 +1,76 @@
+package controller;
+
+import static org.junit.Assert.assertEquals;
+
+import java.io.ByteArrayOutputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Scanner;
+import model.ImageModel;
+import model.ImageModelImplementation;
+import model.Resampler;
+import org.junit.Test;
+import view.ImageViewImplementation;
+
+/**
+ * This class contains unit tests for compiling scripts.
+ */
+public class ScriptPlanTest {
+
+  private ScriptPlan compile(String script) {
+    ImageModel model = new ImageModelImplementation();
+    ImageControllerImplementation controller = new ImageControllerImplementation(
+        model, System.in, new ByteArrayOutputStream(), new ImageViewImplementation());
+    return controller.compile(new Scanner(script), new ArrayList<>(Arrays.asList("game")));
+  }
+
+  @Test
+  public void testNamesDefinedByEarlierLinesAreKnown() {
+    ScriptPlan plan = compile("# split and combine\n"
+        + "rgb-split game r g b\n"
+        + "\n"
+        + "rgb-combine combined r g b\n"
+        + "sepia combined sepia\n"
+        + "save out.png sepia\n");
+    assertEquals(0, plan.getErrors().size());
+    assertEquals(4, plan.size());
+  }
+
+  @Test
+  public void testFileSavedByAnEarlierLineCanBeLoaded() {
+    ScriptPlan plan = compile("save build/planned.png game\n"
+        + "load build/planned.png copy\n"
+        + "load build/missing.png other\n");
+    assertEquals(Arrays.asList("line 3: File build/missing.png not found!"), plan.getErrors());
+  }
+
+  @Test
+  public void testEveryErrorIsReported() {
+    ScriptPlan plan = compile("blur missing blurred\n"
+        + "frobnicate game x\n"
+        + "sepia game game\n"
+        + "save out.png blurred\n");
+    assertEquals(Arrays.asList(
+        "line 1: image-name not present",
+        "line 2: Invalid Command frobnicate",
+        "line 3: destination image-name already used by another image",
+        "line 4: image-name not present"), plan.getErrors());
+  }
+
+  @Test
+  public void testComponentsAreCheckedWithoutAModel() {
+    ScriptPlan plan = compile("greyscale red-component game r\n"
+        + "greyscale purple-component game p\n"
+        + "greyscale luma-component r l\n");
+    assertEquals(Arrays.asList("line 2: Unrecognized Component"), plan.getErrors());
+  }
+
+  @Test
+  public void testOversizedResizeIsRejected() {
+    ScriptPlan plan = compile("resize 100000 100000 game big\n"
+        + "resize -box 0 70000000 game tall\n"
+        + "resize 8192 8192 game largest\n");
+    String error = "The resized image may have at most " + Resampler.MAX_PIXELS + " pixels";
+    assertEquals(Arrays.asList("line 1: " + error, "line 2: " + error), plan.getErrors());
+  }
+}
@@ -0,0 +1,36 @@
+package controller;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import model.ImageModel;
+import model.ImageModelImplementation;
+import org.junit.Test;
+
+/**
+ * This class contains unit tests for the jobs of the script server.
+ */
+public class ScriptServerTest {
+
+  @Test
+  public void testRelativePathsAreRefused() throws IOException {
+    ImageModel model = new ImageModelImplementation();
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    String absolute = new File("missing.png").getAbsolutePath();
+
+    new ScriptServer(model, 0).runJob(Arrays.asList(
+        "load " + absolute + " game",
+        "load images/game.png relative",
+        "stream blur " + absolute + " out.ppm"), out);
+
+    assertEquals("line 2: The server needs an absolute path, not images/game.png\n"
+        + "line 3: The server needs an absolute path, not out.ppm\n"
+        + "Script not run: 2 error(s)\n", out.toString(StandardCharsets.UTF_8));
+    assertTrue(model.getRefNames().isEmpty());
+  }
+}
@@ -3,7 +3,9 @@ package controller;
 import org.junit.Before;
 import org.junit.Test;
 
+import java.awt.Rectangle;
 import java.awt.image.BufferedImage;
+import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
@@ -35,6 +37,11 @@ public class UIControllerTest {
       brightenValue = value;
     }
 
+    @Override
+    public void resize(String imageName, String newImageName, int width, int height,
+        String filter) {
+    }
+
     @Override
     public void applyBlur(String imageName) {
       blurCalled = true;
@@ -130,6 +137,13 @@ public class UIControllerTest {
 
     }
 
+    @Override
+    public void rotating(String rotation, String imageName, String newImageName)
+            throws IOException {
+      // To mock the model.
+
+    }
+
     /**
      * Converts the specified image to greyscale based on the given component option and saves the
      * result under a new reference name.
@@ -321,6 +335,66 @@ public class UIControllerTest {
     public void imgRedComp(String fileName, String destName) {
       // To mock the model.
     }
+
+    @Override
+    public int[] getImageSize(String referenceName) {
+      return null;
+    }
+
+    @Override
+    public void compressToTarget(String fileName, String destFileName, String target,
+        double value) {
+    }
+
+    @Override
+    public void compressTiled(String fileName, String destFileName, int percentage) {
+    }
+
+    @Override
+    public void compressDct(String fileName, String destFileName, int percentage) {
+    }
+
+    @Override
+    public void compressLossless(String fileName, String destFileName) {
+    }
+
+    @Override
+    public void evict(String referenceName) {
+    }
+
+    @Override
+    public boolean loadImage(File file, String referenceName) {
+      return true;
+    }
+
+    @Override
+    public boolean loadImage(File file, String referenceName, Rectangle region, int subsample) {
+      return true;
+    }
+
+    @Override
+    public String pixelHash(String referenceName) {
+      return null;
+    }
+
+    @Override
+    public void writePixels(String referenceName, OutputStream out) {
+    }
+
+    @Override
+    public boolean readPixels(InputStream in, String referenceName) {
+      return true;
+    }
+
+    @Override
+    public boolean loadWavelet(InputStream in, String referenceName, int scale) {
+      return false;
+    }
+
+    @Override
+    public byte[] saveWavelet(String referenceName) {
+      return new byte[0];
+    }
   }
 
   class UIInterfaceMock implements UIInterface {
@@ -0,0 +1,134 @@
+package model;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import org.junit.Test;
+
+/**
+ * This class contains unit tests comparing the single-precision compression engine with the
+ * double-precision reference transforms of CompressionHelper.
+ */
+public class CompressionHelperTest {
+
+  private static final int ROWS = TestImages.ROWS;
+  private static final int COLUMNS = TestImages.COLUMNS;
+
+  private double[][] channel(List<Integer>[][] img, int channel) {
+    double[][] values = new double[img.length][img[0].length];
+    for (int i = 0; i < img.length; i++) {
+      for (int j = 0; j < img[0].length; j++) {
+        values[i][j] = img[i][j].get(channel);
+      }
+    }
+    return values;
+  }
+
+  @Test
+  public void testForwardMatchesDoubleReference() {
+    List<Integer>[][] img = TestImages.gradient(ROWS, COLUMNS);
+    for (int c = 0; c < 3; c++) {
+      double[][] expected = CompressionHelper.har2DTransformation(channel(img, c));
+      float[] plane = CompressionHelper.channelPlane(new PixelImplementation(img), c);
+      new HaarTransform(ROWS, COLUMNS).forward(plane);
+
+      for (int i = 0; i < ROWS; i++) {
+        for (int j = 0; j < COLUMNS; j++) {
+          assertEquals(expected[i][j], plane[i * COLUMNS + j], 1e-2);
+        }
+      }
+    }
+  }
+
+  @Test
+  public void testInverseRestoresChannel() {
+    List<Integer>[][] img = TestImages.gradient(ROWS, COLUMNS);
+    HaarTransform transform = new HaarTransform(ROWS, COLUMNS);
+    float[] plane = CompressionHelper.channelPlane(new PixelImplementation(img), 1);
+    transform.forward(plane);
+    transform.inverse(plane);
+
+    for (int i = 0; i < ROWS; i++) {
+      for (int j = 0; j < COLUMNS; j++) {
+        assertEquals(img[i][j].get(1), plane[i * COLUMNS + j], 1e-3);
+      }
+    }
+  }
+
+  @Test
+  public void testCompressionMatchesDoubleReference() {
+    List<Integer>[][] img = TestImages.gradient(ROWS, COLUMNS);
+    int percentage = 60;
+
+    double[][][] transformed = new double[3][][];
+    List<Double> magnitudes = new ArrayList<>();
+    for (int c = 0; c < 3; c++) {
+      transformed[c] = CompressionHelper.har2DTransformation(channel(img, c));
+      for (double[] row : transformed[c]) {
+        for (double value : row) {
+          if (Math.abs(value) >= 0.001 && !magnitudes.contains(Math.abs(value))) {
+            magnitudes.add(Math.abs(value));
+          }
+        }
+      }
+    }
+    Collections.sort(magnitudes);
+    double threshold = magnitudes.get(percentage * magnitudes.size() / 100);
+
+    CompressionHelper helper = new CompressionHelper(ROWS, COLUMNS);
+    for (int c = 0; c < 3; c++) {
+      helper.compThreshold(new PixelImplementation(img), c);
+    }
+    helper.retrieveThresholdValue(percentage);
+    helper.afterThresh();
+    Pixel result = helper.inverseTransform(TestImages.buffer(ROWS, COLUMNS));
+
+    for (int c = 0; c < 3; c++) {
+      for (double[] row : transformed[c]) {
+        for (int j = 0; j < row.length; j++) {
+          row[j] = Math.abs(row[j]) <= threshold ? 0 : row[j];
+        }
+      }
+      double[][] expected = CompressionHelper.inversehar2dTransformation(transformed[c]);
+      for (int i = 0; i < ROWS; i++) {
+        for (int j = 0; j < COLUMNS; j++) {
+          long reference = Math.max(0, Math.min(255, Math.round(expected[i][j])));
+          int actual = result.getPixel()[i][j].get(c);
+          assertTrue(Math.abs(actual - reference) <= 1);
+        }
+      }
+    }
+  }
+
+  @Test
+  public void testPsnrTargetIsMet() {
+    List<Integer>[][] img = TestImages.gradient(ROWS, COLUMNS);
+    CompressionHelper helper = new CompressionHelper(ROWS, COLUMNS);
+    for (int c = 0; c < 3; c++) {
+      helper.compThreshold(new PixelImplementation(img), c);
+    }
+    helper.selectThresholdForPsnr(new PixelImplementation(img), 30);
+    helper.afterThresh();
+    helper.quantize(WaveletCoefficients.DEFAULT_STEP);
+    Pixel result = helper.inverseTransform(TestImages.buffer(ROWS, COLUMNS));
+
+    assertTrue(TestImages.psnr(img, result.getPixel()) >= 30);
+  }
+
+  @Test
+  public void testSizeTargetIsMet() throws Exception {
+    List<Integer>[][] img = TestImages.gradient(ROWS, COLUMNS);
+    CompressionHelper helper = new CompressionHelper(ROWS, COLUMNS);
+    for (int c = 0; c < 3; c++) {
+      helper.compThreshold(new PixelImplementation(img), c);
+    }
+    helper.selectThresholdForSize(400);
+    helper.afterThresh();
+    WaveletCoefficients coefficients = helper.quantize(WaveletCoefficients.DEFAULT_STEP);
+
+    assertTrue(WaveletCodec.encode(coefficients).length <= 400);
+  }
+}
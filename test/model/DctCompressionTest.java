@@ -0,0 +1,84 @@
+package model;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Arrays;
+import java.util.List;
+import org.junit.Test;
+
+/**
+ * This class contains unit tests for the 8x8 block DCT compression.
+ */
+public class DctCompressionTest {
+
+  private static final int ROWS = TestImages.ROWS;
+  private static final int COLUMNS = TestImages.COLUMNS;
+
+  /**
+   * Builds an image that is flat inside every 8x8 block, with a different even color in each
+   * block, so every block boundary, including those of the partial blocks at the right and
+   * bottom edge, is a sharp step.
+   */
+  private List<Integer>[][] blocks(int height, int width) {
+    List<Integer>[][] img = TestImages.buffer(height, width);
+    for (int i = 0; i < height; i++) {
+      for (int j = 0; j < width; j++) {
+        int block = i / 8 * 3 + j / 8;
+        img[i][j] = Arrays.asList(2 * ((block * 31 + 7) % 128), 2 * ((block * 17 + 50) % 128),
+            2 * ((block * 5 + 90) % 128));
+      }
+    }
+    return img;
+  }
+
+  @Test
+  public void testFlatBlocksSurviveQuantization() {
+    // a flat block only has a DC coefficient, whose quantization step at quality 50 is 16, so
+    // every even value is restored exactly and nothing bleeds over a block boundary
+    List<Integer>[][] img = blocks(ROWS, COLUMNS);
+
+    Pixel result = new DctCompression(50)
+        .compress(new PixelImplementation(img), TestImages.buffer(ROWS, COLUMNS));
+
+    for (int i = 0; i < ROWS; i++) {
+      for (int j = 0; j < COLUMNS; j++) {
+        assertEquals(img[i][j], result.getPixel()[i][j]);
+      }
+    }
+  }
+
+  @Test
+  public void testHighestQualityIsNearlyLossless() {
+    List<Integer>[][] img = TestImages.gradient(ROWS, COLUMNS);
+
+    Pixel result = new DctCompression(100)
+        .compress(new PixelImplementation(img), TestImages.buffer(ROWS, COLUMNS));
+
+    for (int i = 0; i < ROWS; i++) {
+      for (int j = 0; j < COLUMNS; j++) {
+        for (int c = 0; c < 3; c++) {
+          assertTrue(Math.abs(img[i][j].get(c) - result.getPixel()[i][j].get(c)) <= 2);
+        }
+      }
+    }
+  }
+
+  @Test
+  public void testErrorShrinksAsQualityGrows() {
+    // measured on this image: 34.4 dB at quality 30, 40.5 dB at 50 and 52.2 dB at 90
+    List<Integer>[][] img = TestImages.gradient(ROWS, COLUMNS);
+    double[] bounds = {32, 38, 50};
+    int[] qualities = {30, 50, 90};
+
+    double previous = 0;
+    for (int k = 0; k < qualities.length; k++) {
+      Pixel result = new DctCompression(qualities[k])
+          .compress(new PixelImplementation(img), TestImages.buffer(ROWS, COLUMNS));
+      double psnr = TestImages.psnr(img, result.getPixel());
+      assertTrue("quality " + qualities[k] + " reached " + psnr + " dB", psnr > bounds[k]);
+      assertTrue(psnr > previous);
+      previous = psnr;
+    }
+  }
+}
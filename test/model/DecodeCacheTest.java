@@ -0,0 +1,77 @@
+package model;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.List;
+import org.junit.Test;
+
+/**
+ * This class contains unit tests for the decoded-image cache.
+ */
+public class DecodeCacheTest {
+
+  private Pixel image(int rows, int columns) {
+    List<Integer>[][] pixels = TestImages.buffer(rows, columns);
+    for (List<Integer>[] row : pixels) {
+      Arrays.fill(row, Arrays.asList(1, 2, 3));
+    }
+    return new PixelImplementation(pixels);
+  }
+
+  @Test
+  public void testChangedFileIsDecodedAgain() throws IOException {
+    File file = File.createTempFile("decode", ".ppm");
+    file.deleteOnExit();
+    DecodeCache cache = new DecodeCache(DecodeCache.DEFAULT_MAX_BYTES);
+    Pixel image = image(4, 5);
+
+    assertNull(cache.get(file));
+    cache.put(file, image);
+    assertSame(image, cache.get(file));
+    assertTrue(cache.holds(image.getPixel()));
+
+    Files.write(file.toPath(), new byte[] {1, 2, 3});
+    assertNull(cache.get(file));
+  }
+
+  @Test
+  public void testLeastRecentlyUsedImageIsDroppedOverTheCap() throws IOException {
+    File first = File.createTempFile("decode", ".png");
+    File second = File.createTempFile("decode", ".png");
+    first.deleteOnExit();
+    second.deleteOnExit();
+    DecodeCache cache = new DecodeCache(10 * 10 * 128 + 1);
+    Pixel firstImage = image(10, 10);
+    Pixel secondImage = image(10, 10);
+
+    cache.put(first, firstImage);
+    cache.put(second, secondImage);
+
+    assertNull(cache.get(first));
+    assertSame(secondImage, cache.get(second));
+  }
+
+  @Test
+  public void testDroppedImageIsNeverRecycled() throws IOException {
+    File first = File.createTempFile("decode", ".png");
+    File second = File.createTempFile("decode", ".png");
+    first.deleteOnExit();
+    second.deleteOnExit();
+    DecodeCache cache = new DecodeCache(10 * 10 * 128 + 1);
+    Pixel firstImage = image(10, 10);
+
+    cache.put(first, firstImage);
+    cache.put(second, image(10, 10));
+
+    assertNull(cache.get(first));
+    assertTrue(cache.holds(firstImage.getPixel()));
+    assertFalse(cache.holds(image(10, 10).getPixel()));
+  }
+}
@@ -0,0 +1,154 @@
+package model;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+
+import java.awt.Rectangle;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.List;
+import javax.imageio.ImageIO;
+import org.junit.After;
+import org.junit.Test;
+
+/**
+ * This class contains unit tests for the image operations of ImageUtil.
+ */
+public class ImageUtilTest {
+
+  private File file;
+
+  @After
+  public void tearDown() {
+    if (file != null) {
+      file.delete();
+    }
+  }
+
+  @Test
+  public void testLevelAdjustLeavesInputUnchanged() {
+    List<Integer>[][] img = TestImages.gradient(6, 9);
+    List<Integer>[][] copy = TestImages.gradient(6, 9);
+
+    Pixel adjusted = new ImageUtil().levelAdjustImg(20, 100, 250, 0.0, img);
+
+    assertNotSame(img, adjusted.getPixel());
+    for (int i = 0; i < 6; i++) {
+      for (int j = 0; j < 9; j++) {
+        assertEquals(copy[i][j], img[i][j]);
+      }
+    }
+  }
+
+  @Test
+  public void testColorCorrectionLeavesInputUnchanged() {
+    List<Integer>[][] img = TestImages.gradient(6, 9);
+    List<Integer>[][] copy = TestImages.gradient(6, 9);
+
+    new ImageUtil().colorCorrectionImg(50, new PixelImplementation(img));
+
+    for (int i = 0; i < 6; i++) {
+      for (int j = 0; j < 9; j++) {
+        assertEquals(copy[i][j], img[i][j]);
+      }
+    }
+  }
+
+  @Test
+  public void testPooledBufferIsFullyOverwritten() throws IOException {
+    PixelBufferPool pool = new PixelBufferPool(1, 1);
+    ImageUtil util = new ImageUtil(pool);
+    Pixel source = new PixelImplementation(TestImages.gradient(4, 5));
+    Pixel first = util.brightDark(10, 5, 4, source);
+    pool.release(first.getPixel());
+
+    Pixel second = util.brightDark(0, 5, 4, source);
+
+    for (int i = 0; i < 4; i++) {
+      for (int j = 0; j < 5; j++) {
+        assertEquals(source.getPixel()[i][j], second.getPixel()[i][j]);
+      }
+    }
+  }
+
+  private void assertRegion(File file, List<Integer>[][] img) throws IOException {
+    List<Integer>[][] part = new ImageUtil().readRegion(file, new Rectangle(3, 2, 20, 9), 4)
+        .getPixel();
+    assertEquals(3, part.length);
+    assertEquals(5, part[0].length);
+    for (int i = 0; i < 3; i++) {
+      for (int j = 0; j < 5; j++) {
+        assertEquals(img[2 + i * 4][3 + j * 4], part[i][j]);
+      }
+    }
+  }
+
+  @Test
+  public void testRegionOfPpmKeepsSubsampledPixels() throws IOException {
+    List<Integer>[][] img = TestImages.gradient(12, 21);
+    file = File.createTempFile("region", ".ppm");
+    Files.write(file.toPath(), new ImageUtil().ppmCreate("P3", 21, 12, 255,
+        new PixelImplementation(img), null).toString().getBytes(StandardCharsets.US_ASCII));
+    assertRegion(file, img);
+  }
+
+  @Test
+  public void testRegionOfPngKeepsSubsampledPixels() throws IOException {
+    List<Integer>[][] img = TestImages.gradient(12, 21);
+    file = File.createTempFile("region", ".png");
+    ImageIO.write(new ImageUtil().createImageFile(new PixelImplementation(img)), "png", file);
+    assertRegion(file, img);
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testRegionOutsideImageIsRejected() throws IOException {
+    file = File.createTempFile("region", ".png");
+    Pixel image = new PixelImplementation(TestImages.gradient(4, 4));
+    ImageIO.write(new ImageUtil().createImageFile(image), "png", file);
+    new ImageUtil().readRegion(file, new Rectangle(10, 0, 5, 5), 1);
+  }
+
+  @Test
+  public void testRotationsMovePixelsAcrossTiles() {
+    List<Integer>[][] img = TestImages.gradient(150, 70);
+    String[] rotations = {"rotate-90", "rotate-180", "rotate-270", "transpose"};
+    for (String rotation : rotations) {
+      List<Integer>[][] out = new ImageUtil().rotate(rotation, new PixelImplementation(img))
+          .getPixel();
+      boolean quarter = !rotation.equals("rotate-180");
+      assertEquals(quarter ? 70 : 150, out.length);
+      assertEquals(quarter ? 150 : 70, out[0].length);
+      for (int i = 0; i < 150; i++) {
+        for (int j = 0; j < 70; j++) {
+          List<Integer> moved;
+          if (rotation.equals("rotate-90")) {
+            moved = out[j][149 - i];
+          } else if (rotation.equals("rotate-180")) {
+            moved = out[149 - i][69 - j];
+          } else if (rotation.equals("rotate-270")) {
+            moved = out[69 - j][i];
+          } else {
+            moved = out[j][i];
+          }
+          assertEquals(img[i][j], moved);
+        }
+      }
+    }
+  }
+
+  @Test
+  public void testRotateTwiceRestoresImage() {
+    List<Integer>[][] img = TestImages.gradient(33, 130);
+    ImageUtil util = new ImageUtil();
+    Pixel turned = util.rotate("rotate-270",
+        util.rotate("rotate-90", new PixelImplementation(img)));
+    Pixel flipped = util.rotate("transpose", util.rotate("transpose", turned));
+    assertEquals(Arrays.deepToString(img), Arrays.deepToString(flipped.getPixel()));
+    for (int i = 0; i < img.length; i++) {
+      assertNotSame(img[i], flipped.getPixel()[i]);
+    }
+  }
+}
@@ -0,0 +1,75 @@
+package model;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Random;
+import org.junit.Test;
+
+/**
+ * This class contains unit tests for the lossless integer Haar transform.
+ */
+public class IntegerHaarTransformTest {
+
+  private int[] randomPlane(int length, long seed) {
+    Random random = new Random(seed);
+    int[] plane = new int[length];
+    for (int k = 0; k < length; k++) {
+      plane[k] = random.nextInt(256);
+    }
+    return plane;
+  }
+
+  @Test
+  public void testInverseRestoresOddSizesExactly() {
+    int[][] sizes = {{13, 22}, {1, 1}, {1, 40}, {70, 3}, {65, 97}};
+    for (int[] size : sizes) {
+      int[] original = randomPlane(size[0] * size[1], size[0] + size[1]);
+      int[] plane = original.clone();
+      IntegerHaarTransform transform = new IntegerHaarTransform(size[0], size[1]);
+      transform.forward(plane);
+      transform.inverse(plane);
+      assertArrayEquals(original, plane);
+    }
+  }
+
+  @Test
+  public void testFirstCoefficientIsFlatValue() {
+    int[] plane = new int[9 * 6];
+    Arrays.fill(plane, 77);
+    new IntegerHaarTransform(9, 6).forward(plane);
+    assertEquals(77, plane[0]);
+    for (int k = 1; k < plane.length; k++) {
+      assertEquals(0, plane[k]);
+    }
+  }
+
+  @Test
+  public void testLosslessWaveletRoundTrip() throws IOException {
+    int rows = 17;
+    int columns = 31;
+    int[][] channels = new int[3][];
+    for (int c = 0; c < 3; c++) {
+      channels[c] = randomPlane(rows * columns, c);
+    }
+    int[][] transformed = new int[3][];
+    for (int c = 0; c < 3; c++) {
+      transformed[c] = channels[c].clone();
+      new IntegerHaarTransform(rows, columns).forward(transformed[c]);
+    }
+    byte[] encoded = WaveletCodec.encode(
+        new WaveletCoefficients(rows, columns, 1.0f, transformed, true));
+    WaveletCoefficients decoded = WaveletCodec.decode(new ByteArrayInputStream(encoded));
+
+    assertTrue(decoded.isLossless());
+    for (int c = 0; c < 3; c++) {
+      int[] plane = decoded.getChannel(c).clone();
+      new IntegerHaarTransform(rows, columns).inverse(plane);
+      assertArrayEquals(channels[c], plane);
+    }
+  }
+}
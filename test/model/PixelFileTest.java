@@ -0,0 +1,62 @@
+package model;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.List;
+import org.junit.Test;
+
+/**
+ * This class contains unit tests for the raw pixel format of the result cache.
+ */
+public class PixelFileTest {
+
+  private Pixel image(int rows, int columns, int offset) {
+    List<Integer>[][] pixels = TestImages.buffer(rows, columns);
+    for (int i = 0; i < rows; i++) {
+      for (int j = 0; j < columns; j++) {
+        pixels[i][j] = Arrays.asList(i * 7 + offset, j * 11 % 256, (i + j) % 256);
+      }
+    }
+    return new PixelImplementation(pixels);
+  }
+
+  private Pixel roundTrip(Pixel image) throws IOException {
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    PixelFile.write(image, out);
+    return PixelFile.read(new ByteArrayInputStream(out.toByteArray()), new PixelBufferPool(1, 1));
+  }
+
+  @Test
+  public void testEightBitRoundTrip() throws IOException {
+    Pixel image = image(9, 13, 0);
+    assertEquals(PixelFile.hash(image), PixelFile.hash(roundTrip(image)));
+  }
+
+  @Test
+  public void testValuesOutsideAByteRoundTrip() throws IOException {
+    Pixel image = image(4, 3, -20);
+    image.getPixel()[3][2] = Arrays.asList(1000, -5, 255);
+    Pixel read = roundTrip(image);
+    assertEquals(Arrays.asList(1000, -5, 255), read.getPixel()[3][2]);
+    assertEquals(Arrays.asList(-20, 0, 0), read.getPixel()[0][0]);
+  }
+
+  @Test
+  public void testHashDependsOnPixelsAndSize() {
+    String hash = PixelFile.hash(image(4, 6, 0));
+    assertFalse(hash.equals(PixelFile.hash(image(4, 6, 1))));
+    assertFalse(hash.equals(PixelFile.hash(image(6, 4, 0))));
+  }
+
+  @Test
+  public void testOtherStreamsAreRejected() throws IOException {
+    assertNull(PixelFile.read(new ByteArrayInputStream("P3 1 1".getBytes()),
+        new PixelBufferPool(1, 1)));
+  }
+}
@@ -0,0 +1,90 @@
+package model;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.Arrays;
+import java.util.List;
+import org.junit.Test;
+
+/**
+ * This class contains unit tests for resizing images.
+ */
+public class ResamplerTest {
+
+  private Pixel image(int rows, int columns) {
+    List<Integer>[][] pixels = TestImages.buffer(rows, columns);
+    for (int i = 0; i < rows; i++) {
+      for (int j = 0; j < columns; j++) {
+        pixels[i][j] = Arrays.asList(i * 29 % 256, j * 13 % 256, (i * 7 + j * 3) % 256);
+      }
+    }
+    return new PixelImplementation(pixels);
+  }
+
+  private void assertBlockAverages(Pixel source, Pixel resized, int factorX, int factorY) {
+    List<Integer>[][] in = source.getPixel();
+    List<Integer>[][] out = resized.getPixel();
+    for (int i = 0; i < out.length; i++) {
+      for (int j = 0; j < out[0].length; j++) {
+        for (int c = 0; c < 3; c++) {
+          int sum = 0;
+          for (int y = i * factorY; y < (i + 1) * factorY; y++) {
+            for (int x = j * factorX; x < (j + 1) * factorX; x++) {
+              sum += in[y][x].get(c);
+            }
+          }
+          assertEquals(Math.round((float) sum / (factorX * factorY)), (int) out[i][j].get(c));
+        }
+      }
+    }
+  }
+
+  @Test
+  public void testPowerOfTwoBoxAveragesBlocks() {
+    Pixel source = image(16, 32);
+    Pixel resized = new ImageUtil().resize(source, 8, 4, Resampler.Filter.BOX);
+    assertEquals(4, resized.getPixel().length);
+    assertEquals(8, resized.getPixel()[0].length);
+    assertBlockAverages(source, resized, 4, 4);
+  }
+
+  @Test
+  public void testOtherBoxFactorsAverageBlocks() {
+    Pixel source = image(12, 18);
+    assertBlockAverages(source, new ImageUtil().resize(source, 6, 4, Resampler.Filter.BOX), 3, 3);
+  }
+
+  @Test
+  public void testFlatImageStaysFlat() {
+      List<Integer>[][] flat = TestImages.buffer(7, 11);
+    for (List<Integer>[] row : flat) {
+      Arrays.fill(row, Arrays.asList(200, 40, 90));
+    }
+    for (Resampler.Filter filter : Resampler.Filter.values()) {
+      for (int[] size : new int[][] {{3, 5}, {20, 31}}) {
+        List<Integer>[][] out = new ImageUtil().resize(new PixelImplementation(flat), size[1],
+            size[0], filter).getPixel();
+        assertEquals(size[0], out.length);
+        assertEquals(size[1], out[0].length);
+        for (List<Integer>[] row : out) {
+          for (List<Integer> pixel : row) {
+            assertEquals(Arrays.asList(200, 40, 90), pixel);
+          }
+        }
+      }
+    }
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testOversizedOutputIsRejectedBeforeAllocating() {
+    new ImageUtil().resize(image(4, 4), 100000, 100000, Resampler.Filter.BOX);
+  }
+
+  @Test
+  public void testMissingDimensionKeepsAspectRatio() {
+    assertEquals(Arrays.toString(new int[] {400, 300}),
+        Arrays.toString(Resampler.targetSize(800, 600, 400, 0)));
+    assertEquals(Arrays.toString(new int[] {Integer.MAX_VALUE, 1000000000}),
+        Arrays.toString(Resampler.targetSize(1000, 1, 0, 1000000000)));
+  }
+}
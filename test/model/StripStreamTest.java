@@ -0,0 +1,82 @@
+package model;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Scanner;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * This class contains unit tests for streaming an image through an operation strip by strip.
+ */
+public class StripStreamTest {
+
+  private File input;
+  private File output;
+
+  @Before
+  public void setUp() throws IOException {
+    input = File.createTempFile("strip-in", ".ppm");
+    output = File.createTempFile("strip-out", ".ppm");
+  }
+
+  @After
+  public void tearDown() {
+    input.delete();
+    output.delete();
+  }
+
+  /**
+   * Writes an image wide enough to be split into several strips.
+   */
+  private Pixel writeInput(int rows, int columns) throws IOException {
+    List<Integer>[][] pixels = TestImages.buffer(rows, columns);
+    for (int i = 0; i < rows; i++) {
+      for (int j = 0; j < columns; j++) {
+        pixels[i][j] = Arrays.asList(i * 7 % 256, j * 11 % 256, (i + j) % 256);
+      }
+    }
+    Pixel image = new PixelImplementation(pixels);
+    Files.write(input.toPath(), new ImageUtil().ppmCreate("P3", columns, rows, 255, image, null)
+        .toString().getBytes(StandardCharsets.US_ASCII));
+    return image;
+  }
+
+  private List<Integer>[][] readOutput() throws IOException {
+    try (Scanner scanner = new Scanner(new FileInputStream(output))) {
+      return new ImageUtil().ppmRead(scanner).getPixel();
+    }
+  }
+
+  @Test
+  public void testFilterAcrossStripsMatchesWholeImage() throws IOException {
+    Pixel image = writeInput(50, 4096);
+    StripStream.sharpen().run(input, output);
+    Pixel whole = new ImageUtil().filter(
+        image, ImageModelImplementation.SHARPERFILTER, 4096, 50, 100);
+    assertEquals(Arrays.deepToString(whole.getPixel()), Arrays.deepToString(readOutput()));
+  }
+
+  @Test
+  public void testPointOperationMatchesWholeImage() throws IOException {
+    Pixel image = writeInput(40, 3000);
+    StripStream.levels(20, 100, 230).run(input, output);
+    Pixel whole = new ImageUtil().levelAdjustImg(20, 100, 230, 0.0, image.getPixel());
+    assertEquals(Arrays.deepToString(whole.getPixel()), Arrays.deepToString(readOutput()));
+  }
+
+  @Test
+  public void testInvalidInputIsRejected() throws IOException {
+    Files.write(input.toPath(), "P6 1 1 255".getBytes(StandardCharsets.US_ASCII));
+    assertFalse(StripStream.blur().run(input, output));
+  }
+}
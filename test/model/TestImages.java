@@ -0,0 +1,70 @@
+package model;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Builds the images the model tests work on and measures how far two images differ.
+ */
+final class TestImages {
+
+  /** A height that is neither a power of two nor a multiple of 8. */
+  static final int ROWS = 13;
+  /** A width that is neither a power of two nor a multiple of 8. */
+  static final int COLUMNS = 22;
+
+  private TestImages() {
+  }
+
+  /**
+   * Builds an image whose channels vary along the rows, the columns and the diagonal, with a
+   * mutable list for every pixel.
+   *
+   * @param height The number of rows.
+   * @param width  The number of columns.
+   * @return The pixels of the image.
+   */
+  static List<Integer>[][] gradient(int height, int width) {
+    List<Integer>[][] img = buffer(height, width);
+    for (int i = 0; i < height; i++) {
+      for (int j = 0; j < width; j++) {
+        img[i][j] = new ArrayList<>(Arrays.asList((i * 37) % 256, (j * 53) % 256, (i + j) % 256));
+      }
+    }
+    return img;
+  }
+
+  /**
+   * Allocates an empty image for an operation to write its output into.
+   *
+   * @param height The number of rows.
+   * @param width  The number of columns.
+   * @return The empty pixels.
+   */
+  static List<Integer>[][] buffer(int height, int width) {
+    return PixelBufferPool.allocate(height, width);
+  }
+
+  /**
+   * Measures the peak signal-to-noise ratio of an image against the original it was derived
+   * from.
+   *
+   * @param original The original pixels.
+   * @param result   The pixels of the same size to measure.
+   * @return The ratio in decibels, or infinity if the images are equal.
+   */
+  static double psnr(List<Integer>[][] original, List<Integer>[][] result) {
+    double squares = 0;
+    for (int i = 0; i < original.length; i++) {
+      for (int j = 0; j < original[0].length; j++) {
+        for (int c = 0; c < 3; c++) {
+          double difference = original[i][j].get(c) - result[i][j].get(c);
+          squares += difference * difference;
+        }
+      }
+    }
+    double mean = squares / (original.length * original[0].length * 3);
+    return 10 * Math.log10(255.0 * 255.0 / mean);
+  }
+}
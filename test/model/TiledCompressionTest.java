@@ -0,0 +1,89 @@
+package model;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Arrays;
+import java.util.List;
+import org.junit.Test;
+
+/**
+ * This class contains unit tests for the tiled compression.
+ */
+public class TiledCompressionTest {
+
+  private static final int ROWS = TestImages.ROWS;
+  private static final int COLUMNS = TestImages.COLUMNS;
+
+  @Test
+  public void testSingleTileMatchesWholeImageCompression() {
+    List<Integer>[][] img = TestImages.gradient(ROWS, COLUMNS);
+    CompressionHelper helper = new CompressionHelper(ROWS, COLUMNS);
+    for (int c = 0; c < 3; c++) {
+      helper.compThreshold(new PixelImplementation(img), c);
+    }
+    helper.retrieveThresholdValue(60);
+    helper.afterThresh();
+    helper.quantize(WaveletCoefficients.DEFAULT_STEP);
+    Pixel expected = helper.inverseTransform(TestImages.buffer(ROWS, COLUMNS));
+
+    Pixel tiled = new TiledCompression(32)
+        .compress(new PixelImplementation(img), 60, TestImages.buffer(ROWS, COLUMNS));
+
+    for (int i = 0; i < ROWS; i++) {
+      for (int j = 0; j < COLUMNS; j++) {
+        assertEquals(expected.getPixel()[i][j], tiled.getPixel()[i][j]);
+      }
+    }
+  }
+
+  @Test
+  public void testEveryTileIsWritten() {
+    List<Integer>[][] img = TestImages.gradient(ROWS, COLUMNS);
+
+    // 5 divides neither side, so the last row and column of tiles are 3x5, 5x2 and 3x2
+    Pixel tiled = new TiledCompression(5)
+        .compress(new PixelImplementation(img), 0, TestImages.buffer(ROWS, COLUMNS));
+
+    for (int i = 0; i < ROWS; i++) {
+      for (int j = 0; j < COLUMNS; j++) {
+        for (int c = 0; c < 3; c++) {
+          assertTrue(Math.abs(img[i][j].get(c) - tiled.getPixel()[i][j].get(c)) <= 1);
+        }
+      }
+    }
+  }
+
+  @Test
+  public void testEdgeTileDoesNotAffectItsNeighbours() {
+    // 37x45 in tiles of 8 is 5 rows of 6 tiles, the last row 5 high and the last column 5 wide;
+    // the threshold is sampled from tiles 0, 3, 7, 11, 15, 18, 22 and 26, so changing the
+    // bottom right tile 29 must leave the threshold and every other tile as they were
+    int rows = 37;
+    int columns = 45;
+    List<Integer>[][] img = TestImages.gradient(rows, columns);
+    List<Integer>[][] changed = TestImages.gradient(rows, columns);
+    for (int i = 32; i < rows; i++) {
+      for (int j = 40; j < columns; j++) {
+        changed[i][j] = Arrays.asList(255 - img[i][j].get(0), 0, 255);
+      }
+    }
+    TiledCompression compression = new TiledCompression(8);
+
+    List<Integer>[][] expected = compression
+        .compress(new PixelImplementation(img), 50, TestImages.buffer(rows, columns)).getPixel();
+    List<Integer>[][] actual = compression
+        .compress(new PixelImplementation(changed), 50, TestImages.buffer(rows, columns))
+        .getPixel();
+
+    for (int i = 0; i < rows; i++) {
+      for (int j = 0; j < columns; j++) {
+        if (i < 32 || j < 40) {
+          assertEquals(expected[i][j], actual[i][j]);
+        }
+      }
+    }
+    assertFalse(expected[rows - 1][columns - 1].equals(actual[rows - 1][columns - 1]));
+  }
+}
@@ -0,0 +1,143 @@
+package model;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.Random;
+import org.junit.Test;
+
+/**
+ * This class contains unit tests for reading and writing the wavelet format.
+ */
+public class WaveletCodecTest {
+
+  private WaveletCoefficients sparse(int rows, int columns, long seed) {
+    Random random = new Random(seed);
+    int[][] channels = new int[3][rows * columns];
+    for (int[] channel : channels) {
+      for (int k = 0; k < channel.length; k++) {
+        if (random.nextInt(5) == 0) {
+          channel[k] = random.nextInt(4001) - 2000;
+        }
+      }
+    }
+    return new WaveletCoefficients(rows, columns, 1.0f, channels);
+  }
+
+  private void assertRoundTrip(WaveletCoefficients coefficients) throws IOException {
+    byte[] encoded = WaveletCodec.encode(coefficients);
+    WaveletCoefficients decoded = WaveletCodec.decode(new ByteArrayInputStream(encoded));
+
+    assertEquals(coefficients.getRows(), decoded.getRows());
+    assertEquals(coefficients.getColumns(), decoded.getColumns());
+    for (int c = 0; c < 3; c++) {
+      assertArrayEquals(coefficients.getChannel(c), decoded.getChannel(c));
+    }
+  }
+
+  @Test
+  public void testRoundTripOfOddSizes() throws IOException {
+    assertRoundTrip(sparse(13, 22, 1));
+    assertRoundTrip(sparse(3, 1, 2));
+    assertRoundTrip(sparse(1, 40, 3));
+    assertRoundTrip(sparse(1, 1, 4));
+  }
+
+  @Test
+  public void testRoundTripOfLongZeroRuns() throws IOException {
+    int[][] channels = new int[3][64 * 48];
+    channels[0][0] = 5000;
+    channels[1][64 * 48 - 1] = -1;
+    channels[2][1000] = 1;
+    assertRoundTrip(new WaveletCoefficients(48, 64, 1.0f, channels));
+  }
+
+  @Test
+  public void testReducedDecodeAveragesBlocks() throws IOException {
+    int rows = 11;
+    int columns = 14;
+    int[][] channels = new int[3][];
+    float[][] pixels = new float[3][rows * columns];
+    for (int c = 0; c < 3; c++) {
+      for (int k = 0; k < rows * columns; k++) {
+        pixels[c][k] = (k * (c + 7)) % 256;
+      }
+      float[] plane = pixels[c].clone();
+      new HaarTransform(rows, columns).forward(plane);
+      channels[c] = new int[plane.length];
+      for (int k = 0; k < plane.length; k++) {
+        channels[c][k] = Math.round(plane[k]);
+      }
+    }
+    byte[] encoded = WaveletCodec.encode(new WaveletCoefficients(rows, columns, 1.0f, channels));
+
+    WaveletCoefficients reduced = WaveletCodec.decode(new ByteArrayInputStream(encoded), 2);
+    assertEquals(3, reduced.getRows());
+    assertEquals(4, reduced.getColumns());
+    Pixel preview = reduced.reconstruct(TestImages.buffer(3, 4));
+    for (int c = 0; c < 3; c++) {
+      for (int i = 0; i < 3; i++) {
+        for (int j = 0; j < 4; j++) {
+          assertEquals(blockAverage(pixels[c], columns, rows, i, j, 4),
+              preview.getPixel()[i][j].get(c), 1.0);
+        }
+      }
+    }
+  }
+
+  /**
+   * Averages a block of a channel the way the transform does, repeating the last row or column
+   * of an odd-length level.
+   */
+  private double blockAverage(float[] channel, int columns, int rows, int i, int j, int size) {
+    float[] plane = channel.clone();
+    int levels = Integer.numberOfTrailingZeros(size);
+    for (int level = 0; level < levels; level++) {
+      int r = HaarTransform.levelLength(rows, level);
+      int c = HaarTransform.levelLength(columns, level);
+      float[] next = new float[plane.length];
+      for (int y = 0; y < (r + 1) / 2; y++) {
+        for (int x = 0; x < (c + 1) / 2; x++) {
+          int y1 = Math.min(2 * y + 1, r - 1);
+          int x1 = Math.min(2 * x + 1, c - 1);
+          next[y * columns + x] = (plane[2 * y * columns + 2 * x] + plane[2 * y * columns + x1]
+              + plane[y1 * columns + 2 * x] + plane[y1 * columns + x1]) / 4;
+        }
+      }
+      plane = next;
+    }
+    return Math.max(0, Math.min(255, plane[i * columns + j]));
+  }
+
+  @Test
+  public void testOtherFilesAreRejected() throws IOException {
+    byte[] ppm = "P3\n2 2\n255\n".getBytes();
+    assertNull(WaveletCodec.decode(new ByteArrayInputStream(ppm)));
+  }
+
+  @Test
+  public void testTruncatedFilesAreRejected() throws IOException {
+    byte[] encoded = WaveletCodec.encode(sparse(20, 30, 5));
+    for (int length = 0; length < encoded.length; length++) {
+      assertNull(WaveletCodec.decode(new ByteArrayInputStream(Arrays.copyOf(encoded, length))));
+    }
+  }
+
+  @Test
+  public void testImpossibleHeadersAreRejected() throws IOException {
+    byte[] encoded = WaveletCodec.encode(sparse(20, 30, 6));
+    ByteBuffer huge = ByteBuffer.wrap(encoded.clone());
+    huge.putInt(6, Integer.MAX_VALUE).putInt(10, Integer.MAX_VALUE);
+    assertNull(WaveletCodec.decode(new ByteArrayInputStream(huge.array())));
+
+    ByteBuffer negative = ByteBuffer.wrap(encoded.clone());
+    int rings = 20 + 3 * negative.getShort(18);
+    negative.putInt(rings + 2, -1);
+    assertNull(WaveletCodec.decode(new ByteArrayInputStream(negative.array())));
+  }
+}